@@ -1 +1,2 @@
 rootProject.name = "ReallyFakePlayers"
+include("sidecar")
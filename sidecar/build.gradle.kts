@@ -0,0 +1,21 @@
+plugins {
+    id("java")
+    id("application")
+}
+
+version = rootProject.version
+description = "Out-of-process host of ReallyFakePlayers' fake player sessions."
+
+repositories {
+    mavenCentral()
+    maven(url = uri("https://repo.opencollab.dev/maven-releases/"))
+    maven(url = uri("https://jitpack.io"))
+}
+
+dependencies {
+    implementation("com.github.steveice10:mcprotocollib:1.20.4-1")
+}
+
+application {
+    mainClass.set("me.marlester.rfp.sidecar.host.SidecarHost")
+}
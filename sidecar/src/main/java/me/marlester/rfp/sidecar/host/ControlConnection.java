@@ -0,0 +1,187 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.sidecar.host;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.data.game.ResourcePackStatus;
+import com.github.steveice10.mc.protocol.packet.common.clientbound.ClientboundResourcePackPushPacket;
+import com.github.steveice10.mc.protocol.packet.common.serverbound.ServerboundResourcePackPacket;
+import com.github.steveice10.mc.protocol.packet.login.serverbound.ServerboundHelloPacket;
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.event.session.DisconnectedEvent;
+import com.github.steveice10.packetlib.event.session.PacketSendingEvent;
+import com.github.steveice10.packetlib.event.session.SessionAdapter;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.github.steveice10.packetlib.tcp.TcpClientSession;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * A connection with the plugin, serving its fake players.
+ * <p>
+ * The protocol is line based UTF-8 text, one message per line, fields separated by a space.
+ * Fake players are identified by their keys. Chat messages and commands of fake players are
+ * sent on the server through their players, so they aren't part of the protocol.
+ * </p>
+ * Plugin to sidecar:
+ * <ul>
+ *   <li>{@code JOIN <key> <name> <host> <port>} connects a fake player.</li>
+ *   <li>{@code REMOVE <key>} disconnects a fake player.</li>
+ * </ul>
+ * Sidecar to plugin:
+ * <ul>
+ *   <li>{@code DISCONNECTED <key>} a fake player got disconnected, not on the plugin's
+ *   request.</li>
+ * </ul>
+ */
+final class ControlConnection {
+
+  private final SocketChannel channel;
+  private final Object writeLock = new Object();
+  private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+
+  ControlConnection(SocketChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Serves the plugin until it disconnects.
+   */
+  void run() {
+    try (var reader = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(channel), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          handle(line);
+        } catch (RuntimeException e) {
+          SidecarHost.LOGGER.log(Level.WARNING, "Invalid message: " + line, e);
+        }
+      }
+    } catch (IOException e) {
+      SidecarHost.LOGGER.log(Level.WARNING, "Connection with the plugin failed!", e);
+    } finally {
+      sessions.values().forEach(session -> session.disconnect("Sidecar lost the plugin"));
+      sessions.clear();
+      try {
+        channel.close();
+      } catch (IOException ignored) {
+        // Closing anyway
+      }
+    }
+  }
+
+  private void handle(String line) {
+    String[] parts = line.split(" ", 3);
+    var key = UUID.fromString(parts[1]);
+    switch (parts[0]) {
+      case "JOIN" -> {
+        String[] args = parts[2].split(" ");
+        join(key, args[0], args[1], Integer.parseInt(args[2]));
+      }
+      case "REMOVE" -> {
+        var session = sessions.remove(key);
+        if (session != null) {
+          session.disconnect("Removed");
+        }
+      }
+      default -> SidecarHost.LOGGER.warning("Unknown message: " + line);
+    }
+  }
+
+  private void join(UUID key, String name, String host, int port) {
+    var session = new TcpClientSession(host, port, new MinecraftProtocol(name));
+    session.addListener(new SessionAdapter() {
+      @Override
+      public void packetSending(PacketSendingEvent event) {
+        // The plugin recognizes its fake players by the key, see the plugin's FakePlayerImpl
+        if (event.getPacket() instanceof ServerboundHelloPacket helloPacket) {
+          event.setPacket(helloPacket.withProfileId(key));
+        }
+      }
+
+      @Override
+      public void packetReceived(Session session, Packet packet) {
+        if (packet instanceof ClientboundResourcePackPushPacket rpPacket) {
+          if (!isValidResourcePackUrl(rpPacket.getUrl())) {
+            session.send(new ServerboundResourcePackPacket(rpPacket.getId(),
+                ResourcePackStatus.INVALID_URL));
+            return;
+          }
+          session.send(new ServerboundResourcePackPacket(rpPacket.getId(),
+              ResourcePackStatus.ACCEPTED));
+          session.send(new ServerboundResourcePackPacket(rpPacket.getId(),
+              ResourcePackStatus.DOWNLOADED));
+          session.send(new ServerboundResourcePackPacket(rpPacket.getId(),
+              ResourcePackStatus.SUCCESSFULLY_LOADED));
+        }
+      }
+
+      @Override
+      public void disconnected(DisconnectedEvent event) {
+        // Removed on the plugin's request already otherwise
+        if (sessions.remove(key, session)) {
+          var cause = event.getCause();
+          if (cause != null) {
+            SidecarHost.LOGGER.log(Level.WARNING, "Fake player " + name
+                + " disconnected with an error!", cause);
+          }
+          send("DISCONNECTED " + key);
+        }
+      }
+    });
+    var previous = sessions.put(key, session);
+    if (previous != null) {
+      previous.disconnect("Replaced");
+    }
+    session.connect(false);
+  }
+
+  private void send(String message) {
+    var buffer = ByteBuffer.wrap((message + "\n").getBytes(StandardCharsets.UTF_8));
+    synchronized (writeLock) {
+      try {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      } catch (IOException e) {
+        SidecarHost.LOGGER.log(Level.WARNING, "Couldn't send a message to the plugin!", e);
+      }
+    }
+  }
+
+  private static boolean isValidResourcePackUrl(String url) {
+    try {
+      var protocol = URI.create(url).toURL().getProtocol();
+      return "http".equals(protocol) || "https".equals(protocol);
+    } catch (MalformedURLException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+}
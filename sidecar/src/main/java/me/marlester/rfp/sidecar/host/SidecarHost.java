@@ -0,0 +1,67 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.sidecar.host;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Standalone host of fake player sessions, so their clients don't live in the server's JVM.
+ * <p>
+ * Listens on a Unix domain socket for the plugin, which tells it what fake players to join and
+ * remove. Only one plugin is served at a time, when it disconnects all its fake players are
+ * disconnected as well. Usage: {@code bin/sidecar [socket path]} of the installed distribution,
+ * the path defaults to {@code sidecar.sock} and must match the plugin's config.
+ * </p>
+ *
+ * @see ControlConnection the protocol.
+ */
+public final class SidecarHost {
+
+  static final Logger LOGGER = Logger.getLogger("RfpSidecar");
+
+  private SidecarHost() {
+  }
+
+  /**
+   * Starts the sidecar.
+   *
+   * @param args optional path of the socket.
+   * @throws IOException if the socket can't be bound.
+   */
+  public static void main(String[] args) throws IOException {
+    Path socketPath = Path.of(args.length > 0 ? args[0] : "sidecar.sock");
+    // A socket file left by a previous run would make binding fail
+    Files.deleteIfExists(socketPath);
+    try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      server.bind(UnixDomainSocketAddress.of(socketPath));
+      LOGGER.info("Listening on " + socketPath.toAbsolutePath() + ".");
+      while (true) {
+        var channel = server.accept();
+        LOGGER.info("Plugin connected.");
+        new ControlConnection(channel).run();
+        LOGGER.info("Plugin disconnected.");
+      }
+    }
+  }
+}
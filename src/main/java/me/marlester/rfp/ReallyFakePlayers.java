@@ -21,19 +21,22 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.name.Names;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import io.github.miniplaceholders.api.Expansion;
 import me.marlester.rfp.autojoin.AutoJoin;
 import me.marlester.rfp.bytecodeedit.BytecodeEditingRegistrar;
 import me.marlester.rfp.command.CommandsRegistrar;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.config.ConfigsModule;
 import me.marlester.rfp.config.ConfigsRegistrar;
 import me.marlester.rfp.fakeplayers.FakePlayerManager;
 import me.marlester.rfp.fakeplayers.FakePlayersModule;
 import me.marlester.rfp.listener.ListenersRegistrar;
-import me.marlester.rfp.listener.fakeplayerjoinlistener.FakePlayerJoinListenerModule;
+import me.marlester.rfp.metrics.MetricsExporter;
 import me.marlester.rfp.minimessage.MiniMessageModule;
 import me.marlester.rfp.placeholders.PlaceholdersModule;
+import me.marlester.rfp.sidecar.SidecarConnector;
+import me.marlester.rfp.timer.TimingWheel;
+import me.marlester.rfp.transport.LocalTransport;
 import me.marlester.rfp.update.UpdateChecker;
 import me.marlester.rfp.vault.VaultIntegration;
 import org.bukkit.Bukkit;
@@ -60,7 +63,6 @@ public final class ReallyFakePlayers extends JavaPlugin {
         new MainModule(this),
         new ConfigsModule(),
         new FakePlayersModule(),
-        new FakePlayerJoinListenerModule(),
         new PlaceholdersModule(),
         new MiniMessageModule()
     );
@@ -72,11 +74,13 @@ public final class ReallyFakePlayers extends JavaPlugin {
     injector.getInstance(CommandsRegistrar.class).registerCommands();
     injector.getInstance(Key.get(Expansion.class, Names.named("placeholdersExpansion")))
         .register();
+    injector.getInstance(TimingWheel.class).start();
+    injector.getInstance(MetricsExporter.class).start();
 
     injector.getInstance(AutoJoin.class).startAutoJoin();
     Bukkit.getScheduler().runTaskLater(this, () -> {
-      var config = injector.getInstance(Key.get(YamlDocument.class, Names.named("config")));
-      if (config.getBoolean("update-check.on-startup")) {
+      var settings = injector.getInstance(ConfigYml.class).getSettings();
+      if (settings.updateCheck().onStartup()) {
         injector.getInstance(UpdateChecker.class).checkUpdatesConsole();
       }
     }, 1);
@@ -84,6 +88,10 @@ public final class ReallyFakePlayers extends JavaPlugin {
 
   @Override
   public void onDisable() {
-    injector.getInstance(FakePlayerManager.class).removeAll();
+    injector.getInstance(FakePlayerManager.class).shutdown();
+    injector.getInstance(MetricsExporter.class).stop();
+    injector.getInstance(TimingWheel.class).stop();
+    injector.getInstance(LocalTransport.class).close();
+    injector.getInstance(SidecarConnector.class).close();
   }
 }
@@ -19,13 +19,12 @@ package me.marlester.rfp.autojoin;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
-import java.util.concurrent.ThreadLocalRandom;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.fakeplayers.FakePlayerManager;
+import me.marlester.rfp.load.LoadGovernor;
 import org.bukkit.Bukkit;
 
 /**
@@ -36,27 +35,31 @@ import org.bukkit.Bukkit;
 public class AutoJoin {
 
   private final ReallyFakePlayers pl;
-  @Named("config")
-  private final YamlDocument config;
+  private final ConfigYml configYml;
   private final FakePlayerManager fakePlayerManager;
+  private final PopulationController populationController;
+  private final LoadGovernor loadGovernor;
 
   /**
-   * Start auto-adding fake players.
+   * Start auto-adding fake players, or controlling their population if configured so.
    */
   public void startAutoJoin() {
-    if (!config.getBoolean("auto-join.enable")) {
+    populationController.start();
+    var autoJoin = configYml.getSettings().autoJoin();
+    if (!autoJoin.enable()) {
       return;
     }
-    int startupDelay = 20 * config.getInt("auto-join.startup-delay");
+    int startupDelay = 20 * autoJoin.startupDelay();
     var scheduler = Bukkit.getScheduler();
     scheduler.runTaskLater(pl, new Runnable() {
       @Override
       public void run() {
-        fakePlayerManager.addNumber(1);
-        int delay = 20 * ThreadLocalRandom.current().nextInt(
-            config.getInt("auto-join.delay.min"),
-            config.getInt("auto-join.delay.max") + 1
-        );
+        // The population controller takes over, and nobody is added under load
+        if (!configYml.getSettings().populationControl().enable()
+            && loadGovernor.allowsGrowth()) {
+          fakePlayerManager.addNumber(1);
+        }
+        int delay = 20 * configYml.getSettings().autoJoin().delay().random();
         // Schedule the next execution(s)
         scheduler.runTaskLater(pl, this, delay);
       }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.autojoin;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.time.LocalTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.config.RfpSettings;
+import me.marlester.rfp.fakeplayers.FakePlayerManager;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.timer.TimingWheel;
+import org.bukkit.Bukkit;
+
+/**
+ * Keeps the number of fake players close to a target.
+ * <p>
+ * Every interval the target is computed (constant, by the time of the day or by the number of
+ * real players) and at most max-step fake players are added or removed to get closer to it.
+ * Fake players are not added while the server's average tick is over the budget, removing
+ * continues, as it only lowers the load.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class PopulationController {
+
+  private final ConfigYml configYml;
+  private final FakePlayerManager fakePlayerManager;
+  private final FakeLister fakeLister;
+  private final TimingWheel timingWheel;
+  private final LoadGovernor loadGovernor;
+
+  /**
+   * The target of the last adjustment.
+   */
+  @Getter
+  private int lastTarget;
+  /**
+   * Whether the last adjustment held back joins because of the server's load.
+   */
+  @Getter
+  private boolean throttled;
+  private boolean started;
+
+  /**
+   * Starts adjusting the number of fake players, it keeps running and follows the config, so
+   * enabling population control with a reload works as well.
+   */
+  public void start() {
+    if (started) {
+      return;
+    }
+    started = true;
+    scheduleAdjustment();
+  }
+
+  private void scheduleAdjustment() {
+    int interval = configYml.getSettings().populationControl().interval();
+    timingWheel.schedule(null, 20L * interval, () -> {
+      adjust();
+      scheduleAdjustment();
+    });
+  }
+
+  private void adjust() {
+    var settings = configYml.getSettings();
+    var control = settings.populationControl();
+    if (!control.enable()) {
+      return;
+    }
+    int target = Math.min(Math.max(computeTarget(control), control.min()),
+        settings.maxFakePlayers());
+    lastTarget = target;
+    int current = fakePlayerManager.getPendingCount();
+    throttled = false;
+    if (current < target) {
+      if (!loadGovernor.allowsGrowth() || Bukkit.getAverageTickTime() > control.msptBudget()) {
+        throttled = true;
+        return;
+      }
+      fakePlayerManager.addNumber(Math.min(target - current, control.maxStep()));
+    } else if (current > target) {
+      fakePlayerManager.removeNumber(Math.min(current - target, control.maxStep()));
+    }
+  }
+
+  private int computeTarget(RfpSettings.PopulationControl control) {
+    return switch (control.mode()) {
+      case CONSTANT -> control.target();
+      case RATIO -> {
+        int realPlayers = Bukkit.getOnlinePlayers().size() - fakeLister.getFakePlayerCount();
+        yield (int) Math.round(realPlayers * control.ratio());
+      }
+      case CURVE -> curveTarget(control, LocalTime.now());
+    };
+  }
+
+  private static int curveTarget(RfpSettings.PopulationControl control, LocalTime time) {
+    var curve = control.curve();
+    if (curve.isEmpty()) {
+      return control.target();
+    }
+    double hour = time.toSecondOfDay() / 3600.0;
+    // Find the points around the hour, wrapping around midnight
+    var before = curve.get(curve.size() - 1);
+    var after = curve.get(0);
+    for (var point : curve) {
+      if (point.hour() <= hour) {
+        before = point;
+      } else {
+        after = point;
+        break;
+      }
+    }
+    double span = Math.floorMod(after.hour() - before.hour(), 24);
+    if (span == 0) {
+      return before.target();
+    }
+    double progress = (hour - before.hour() + 24) % 24 / span;
+    return (int) Math.round(before.target() + (after.target() - before.target()) * progress);
+  }
+}
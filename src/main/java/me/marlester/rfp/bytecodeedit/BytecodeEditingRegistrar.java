@@ -32,6 +32,7 @@ public class BytecodeEditingRegistrar {
 
   private final SecretClasser secretClasser;
   private final LoginListenerEditor loginListenerEditor;
+  private final PlayerDataEditor playerDataEditor;
 
   /**
    * Initiates all bytecode modifications.
@@ -40,5 +41,6 @@ public class BytecodeEditingRegistrar {
     ByteBuddyAgent.install();
     secretClasser.createSecretClass();
     loginListenerEditor.startEditing();
+    playerDataEditor.startEditing();
   }
 }
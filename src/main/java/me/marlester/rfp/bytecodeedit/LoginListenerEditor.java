@@ -25,7 +25,6 @@ import java.lang.instrument.Instrumentation;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtMethod;
-import javassist.LoaderClassPath;
 import javassist.expr.ExprEditor;
 import javassist.expr.MethodCall;
 import lombok.AccessLevel;
@@ -60,8 +59,8 @@ public class LoginListenerEditor {
   public void startEditing() {
     Class<?> clazz = ServerLoginPacketListenerImpl.class;
 
-    ClassPool pool = new ClassPool();
-    pool.appendClassPath(new LoaderClassPath(clazz.getClassLoader()));
+    // The secret class lives in the same class loader, sharing its pool lets us link against it
+    ClassPool pool = secretClasser.getClassPool();
     CtClass ctClass = pool.get(clazz.getName());
     ctClass.defrost(); // as this class is already loaded, javassist tries to protect it.
     CtMethod handleHello = ctClass.getDeclaredMethod(RemapUtil.HANDLE_HELLO_METHOD_NAME,
@@ -73,6 +72,8 @@ public class LoginListenerEditor {
       @Override
       public void edit(MethodCall methodCall) {
         if (methodCall.getMethod().equals(checkAuthMethod)) {
+          // The map is read straight from the secret class's static final field, so this runs
+          // for every login without any reflection.
           /*
            * code executing checking authentication AND anti-fakeplayer check instead of just
            * checking authentication, we also use optional game profile id as a key. highly VDP
@@ -83,14 +84,10 @@ public class LoginListenerEditor {
                   boolean isFakePlayer = false;
                   java.util.UUID key = packet.%4$s();
                   if (key != null) {
-                    Class secretClass = Class.forName("%2$s");
-                    java.util.Map fakePlayerUuidsByKey = (java.util.Map) secretClass
-                        .getDeclaredField("%3$s").get(null);
-                    java.util.UUID newUuid = (java.util.UUID) fakePlayerUuidsByKey.get(key);
+                    java.util.UUID newUuid = (java.util.UUID) %2$s.%3$s.remove(key);
                     if (newUuid != null) {
                       isFakePlayer = true;
                       this.%5$s.spoofedUUID = newUuid;
-                      fakePlayerUuidsByKey.remove(key);
                     }
                   }
                   $_ = $proceed($$) && !isFakePlayer;
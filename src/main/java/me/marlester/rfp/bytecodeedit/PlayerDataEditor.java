@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.bytecodeedit;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.mojang.authlib.GameProfile;
+import java.lang.instrument.ClassDefinition;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import me.marlester.rfp.util.RemapUtil;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.players.GameProfileCache;
+import net.minecraft.server.players.PlayerList;
+
+/**
+ * Responsible for editing player data saving in PaperMC, so data of fake players with discarded
+ * data never reaches the disk. Saving of player data (playerdata, stats and advancements) and
+ * adding to the user cache are skipped for uuids in the secret class's set, every skipped write
+ * is counted.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class PlayerDataEditor {
+
+  private final SecretClasser secretClasser;
+
+  /**
+   * Starts the editing process of the player list and the user cache.
+   */
+  @SneakyThrows
+  public void startEditing() {
+    ClassPool pool = secretClasser.getClassPool();
+    String secretClassName = secretClasser.getSecretClassName();
+    String uuidsField = secretClassName + "." + secretClasser.getDiscardedDataUuidsFieldName();
+
+    // Saves playerdata, stats and advancements, on quit and on every autosave. highly VDP
+    editMethod(pool, PlayerList.class, RemapUtil.PLAYER_LIST_SAVE_METHOD_NAME,
+        ServerPlayer.class, String.format("""
+            {
+              if (%1$s.contains($1.%2$s())) {
+                %3$s.%4$s.increment();
+                return;
+              }
+            }
+            """,
+            uuidsField,
+            RemapUtil.GET_UUID_METHOD_NAME,
+            secretClassName,
+            secretClasser.getSuppressedDataSavesFieldName()
+        ));
+    // Adds to usercache.json on every login. highly VDP
+    editMethod(pool, GameProfileCache.class, RemapUtil.PROFILE_CACHE_ADD_METHOD_NAME,
+        GameProfile.class, String.format("""
+            {
+              if ($1 != null && %1$s.contains($1.getId())) {
+                %2$s.%3$s.increment();
+                return;
+              }
+            }
+            """,
+            uuidsField,
+            secretClassName,
+            secretClasser.getSuppressedCacheWritesFieldName()
+        ));
+  }
+
+  @SneakyThrows
+  private void editMethod(ClassPool pool, Class<?> clazz, String methodName,
+      Class<?> parameterType, String code) {
+    CtClass ctClass = pool.get(clazz.getName());
+    ctClass.defrost(); // as this class is already loaded, javassist tries to protect it.
+    CtMethod method = ctClass.getDeclaredMethod(methodName,
+        new CtClass[] {pool.get(parameterType.getName())});
+    method.insertBefore(code);
+    ClassDefinition classDefinition = new ClassDefinition(clazz, ctClass.toBytecode());
+    ByteBuddyAgent.getInstrumentation().redefineClasses(classDefinition);
+  }
+}
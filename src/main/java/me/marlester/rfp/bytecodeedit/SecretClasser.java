@@ -21,7 +21,9 @@ import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
 import javassist.ClassPool;
 import javassist.CtClass;
 import javassist.CtField;
@@ -49,6 +51,24 @@ public class SecretClasser {
   @Getter
   private Map<UUID, UUID> fakePlayerUuidsByKey;
 
+  /**
+   * The instance of a set in the secret class, uuids of fake players whose data is discarded.
+   */
+  @Getter
+  private Set<UUID> discardedDataUuids;
+
+  /**
+   * Counter of suppressed player data saves, in the secret class.
+   */
+  @Getter
+  private LongAdder suppressedDataSaves;
+
+  /**
+   * Counter of suppressed user cache writes, in the secret class.
+   */
+  @Getter
+  private LongAdder suppressedCacheWrites;
+
   /**
    * The secret class's name.
    */
@@ -61,6 +81,31 @@ public class SecretClasser {
   @Getter
   private String uuidsByKeyFieldName;
 
+  /**
+   * Name of the field of the set of uuids whose data is discarded.
+   */
+  @Getter
+  private String discardedDataUuidsFieldName;
+
+  /**
+   * Name of the field of the suppressed player data saves counter.
+   */
+  @Getter
+  private String suppressedDataSavesFieldName;
+
+  /**
+   * Name of the field of the suppressed user cache writes counter.
+   */
+  @Getter
+  private String suppressedCacheWritesFieldName;
+
+  /**
+   * The class pool the secret class was made in.
+   * Code compiled with it can reference the secret class directly.
+   */
+  @Getter
+  private ClassPool classPool;
+
   /**
    * Creates the 'secret class' used to hold some fake player data inside minecraft.
    */
@@ -74,19 +119,37 @@ public class SecretClasser {
     // let's protect ourselves by using a random string sequence in addition to it
     String randomAlphanumericString = RandomStringUtils.randomAlphanumeric(3);
     String secretClassSimpleName = "Secret" + pluginName + "DataClass" + randomAlphanumericString;
-    ClassPool pool = new ClassPool();
-    pool.appendClassPath(new LoaderClassPath(classLoader));
-    CtClass newClass = pool.makeClass(packageName + "." + secretClassSimpleName);
+    classPool = new ClassPool();
+    classPool.appendClassPath(new LoaderClassPath(classLoader));
+    CtClass newClass = classPool.makeClass(packageName + "." + secretClassSimpleName);
 
     uuidsByKeyFieldName = "fakePlayerUuidsByKey" + randomAlphanumericString;
     // Since this field is going to be used from different async and sync contexts,
     // we need to make it concurrent
-    newClass.addField(CtField.make("public static java.util.Map "
+    newClass.addField(CtField.make("public static final java.util.Map "
         + uuidsByKeyFieldName + " = new java.util.concurrent.ConcurrentHashMap();", newClass));
+    discardedDataUuidsFieldName = "discardedDataUuids" + randomAlphanumericString;
+    newClass.addField(CtField.make("public static final java.util.Set "
+        + discardedDataUuidsFieldName
+        + " = java.util.concurrent.ConcurrentHashMap.newKeySet();", newClass));
+    suppressedDataSavesFieldName = "suppressedDataSaves" + randomAlphanumericString;
+    newClass.addField(CtField.make("public static final java.util.concurrent.atomic.LongAdder "
+        + suppressedDataSavesFieldName
+        + " = new java.util.concurrent.atomic.LongAdder();", newClass));
+    suppressedCacheWritesFieldName = "suppressedCacheWrites" + randomAlphanumericString;
+    newClass.addField(CtField.make("public static final java.util.concurrent.atomic.LongAdder "
+        + suppressedCacheWritesFieldName
+        + " = new java.util.concurrent.atomic.LongAdder();", newClass));
     Class<?> secretClass = newClass.toClass(neighborClass);
     secretClassName = secretClass.getName();
     fakePlayerUuidsByKey = (Map<UUID, UUID>) secretClass
         .getDeclaredField(uuidsByKeyFieldName).get(null);
+    discardedDataUuids = (Set<UUID>) secretClass
+        .getDeclaredField(discardedDataUuidsFieldName).get(null);
+    suppressedDataSaves = (LongAdder) secretClass
+        .getDeclaredField(suppressedDataSavesFieldName).get(null);
+    suppressedCacheWrites = (LongAdder) secretClass
+        .getDeclaredField(suppressedCacheWritesFieldName).get(null);
   }
 
 }
@@ -19,18 +19,18 @@ package me.marlester.rfp.chatting;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
-import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
 import me.marlester.rfp.minimessage.MiniMsgAsst;
-import org.bukkit.Bukkit;
+import me.marlester.rfp.timer.TimingWheel;
 
 /**
  * With this class fake players can automatically chat.
@@ -39,9 +39,10 @@ import org.bukkit.Bukkit;
 @Singleton
 public class Chatting {
 
-  @Named("config")
-  private final YamlDocument config;
-  private final ReallyFakePlayers pl;
+  private final ConfigYml configYml;
+  private final TimingWheel timingWheel;
+  private final LoadGovernor loadGovernor;
+  private final FakePlayerMetrics metrics;
   private final MiniMsgAsst miniMsgAsst;
 
   private final List<FakePlayer> chatters = new ArrayList<>();
@@ -52,47 +53,47 @@ public class Chatting {
    * @param fakePlayer fake player that you want to force to chat
    */
   public void startChatting(FakePlayer fakePlayer) {
-    if (!config.getBoolean("chatting.enable")) {
+    var chatting = configYml.getSettings().chatting();
+    if (!chatting.enable()) {
       return;
     }
-    if (chatters.size() >= config.getInt("chatting.max-chatters")) {
+    if (chatters.size() >= chatting.maxChatters()) {
       return;
     }
     AtomicBoolean firstRun = new AtomicBoolean(true);
-    int firstDelay = 20 * ThreadLocalRandom.current().nextInt(
-        config.getInt("chatting.first-delay.min"),
-        config.getInt("chatting.first-delay.max") + 1
-    );
-    var scheduler = Bukkit.getScheduler();
-    scheduler.runTaskLater(pl, new Runnable() {
+    int firstDelay = 20 * chatting.firstDelay().random();
+    timingWheel.schedule(fakePlayer, firstDelay, new Runnable() {
       @Override
       public void run() {
         if (fakePlayer.isRemoved()) {
           return;
         }
-        chatRandomMessage(fakePlayer, firstRun.get());
-        chatters.add(fakePlayer);
-        scheduler.runTaskLater(pl, () -> {
-          chatters.remove(fakePlayer);
-        }, 20L * config.getInt("chatting.period"));
-        int delay = 20 * ThreadLocalRandom.current().nextInt(
-            config.getInt("chatting.delay.min"),
-            config.getInt("chatting.delay.max") + 1
-        );
+        var settings = configYml.getSettings().chatting();
+        // Under load the message is skipped, the next one is scheduled as usual
+        if (loadGovernor.allowsChatter()) {
+          chatRandomMessage(fakePlayer, firstRun.get());
+          chatters.add(fakePlayer);
+          // Not owned, the chatter slot has to be freed even if the fake player is removed
+          timingWheel.schedule(null, 20L * settings.period(), () -> {
+            chatters.remove(fakePlayer);
+          });
+          firstRun.compareAndSet(true, false);
+        }
+        int delay = 20 * settings.delay().random();
 
-        firstRun.compareAndSet(true, false);
         // Schedule the next execution(s)
-        scheduler.runTaskLater(pl, this, delay);
+        timingWheel.schedule(fakePlayer, delay, this);
       }
-    }, firstDelay);
+    });
   }
 
   private void chatRandomMessage(FakePlayer fakePlayer, boolean firstMessage) {
-    var messages = firstMessage ? config.getStringList("chatting.first-messages")
-        : config.getStringList("chatting.messages");
+    var chatting = configYml.getSettings().chatting();
+    var messages = firstMessage ? chatting.firstMessages() : chatting.messages();
     var message = messages.get(ThreadLocalRandom.current().nextInt(messages.size()));
     var player = fakePlayer.getPlayer();
     message = miniMsgAsst.deserializeAsPlainText(message, player);
     player.chat(message);
+    metrics.countChatMessage();
   }
 }
@@ -22,11 +22,27 @@ import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import dev.dejvokep.boostedyaml.YamlDocument;
 import java.io.IOException;
+import java.util.Locale;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.autojoin.PopulationController;
+import me.marlester.rfp.bytecodeedit.SecretClasser;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.fakeplayers.FakePlayerManager;
+import me.marlester.rfp.fakeplayers.JoinPipeline;
+import me.marlester.rfp.fakeplayers.RemovalReason;
 import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.faketools.FakeNamer;
+import me.marlester.rfp.faketools.FootprintMeter;
+import me.marlester.rfp.joincommands.JoinCommandDispatcher;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
+import me.marlester.rfp.metrics.JoinPhase;
+import me.marlester.rfp.minimessage.MiniMsgAsst;
+import me.marlester.rfp.timer.TimingWheel;
 import me.marlester.rfp.update.UpdateChecker;
+import me.marlester.rfp.vault.VaultIntegration;
+import me.marlester.rfp.visibility.FakePlayerVisibility;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import org.bukkit.entity.Player;
 import revxrsal.commands.annotation.Command;
@@ -47,10 +63,22 @@ public class RfpCommand {
 
   @Named("config")
   private final YamlDocument config;
+  private final ConfigYml configYml;
   private final ComponentLogger logger;
   private final FakeLister fakeLister;
   private final FakePlayerManager fakePlayerManager;
+  private final JoinPipeline joinPipeline;
+  private final JoinCommandDispatcher joinCommandDispatcher;
+  private final FootprintMeter footprintMeter;
+  private final SecretClasser secretClasser;
+  private final LoadGovernor loadGovernor;
+  private final PopulationController populationController;
+  private final FakePlayerVisibility fakePlayerVisibility;
+  private final VaultIntegration vaultIntegration;
+  private final FakePlayerMetrics metrics;
+  private final TimingWheel timingWheel;
   private final UpdateChecker updateChecker;
+  private final MiniMsgAsst miniMsgAsst;
 
   @Subcommand("checkupdates")
   public void checkUpdates(BukkitCommandActor actor) {
@@ -60,10 +88,91 @@ public class RfpCommand {
   @Subcommand("list")
   public void list(BukkitCommandActor actor) {
     actor.reply("There are %s of a max of %s fake players online:".formatted(
-        fakeLister.getFakePlayers().size(),
-        config.getInt("max-fake-players")
+        fakeLister.getFakePlayerCount(),
+        configYml.getSettings().maxFakePlayers()
     ));
-    fakeLister.getFakePlayersByName().keySet().forEach(actor::reply);
+    fakeLister.getFakePlayers().forEach(fakePlayer -> actor.reply(fakePlayer.getName()));
+  }
+
+  @Subcommand("queue")
+  public void queue(BukkitCommandActor actor) {
+    actor.reply("There are %s fake players queued to join and %s logging in.".formatted(
+        joinPipeline.getQueueDepth(),
+        joinPipeline.getInFlightCount()
+    ));
+    actor.reply("%s fake players joined through the queue, it took them %sms on average"
+        .formatted(joinPipeline.getJoinedCount(), joinPipeline.getAverageTimeToJoinMillis())
+        + " (%sms the last one).".formatted(joinPipeline.getLastTimeToJoinMillis()));
+  }
+
+  @Subcommand("footprint")
+  public void footprint(BukkitCommandActor actor) {
+    var footprint = footprintMeter.measure();
+    actor.reply(("%s fake players hold an estimated %s chunks, with default view distances"
+        + " it would be an estimated %s.").formatted(footprint.fakePlayers(),
+        footprint.estimatedChunks(), footprint.defaultChunks()));
+    actor.reply("Suppressed %s player data saves and %s user cache writes of fake players."
+        .formatted(secretClasser.getSuppressedDataSaves().sum(),
+            secretClasser.getSuppressedCacheWrites().sum()));
+  }
+
+  @Subcommand("load")
+  public void load(BukkitCommandActor actor) {
+    actor.reply("Load state is %s at %.1f average milliseconds per tick.".formatted(
+        loadGovernor.getState(),
+        loadGovernor.getMspt()
+    ));
+    if (configYml.getSettings().populationControl().enable()) {
+      actor.reply("Population control targets %s fake players%s.".formatted(
+          populationController.getLastTarget(),
+          populationController.isThrottled() ? ", joins are held back by the load" : ""
+      ));
+    }
+  }
+
+  @Subcommand("stats")
+  public void stats(BukkitCommandActor actor) {
+    actor.reply("Fake players: %s joined, %s raw, %s ghosts, %s queued.".formatted(
+        fakeLister.getFakePlayerCount(),
+        fakeLister.getRawFakePlayerCount(),
+        fakeLister.getGhostFakePlayerCount(),
+        joinPipeline.getQueueDepth()
+    ));
+    actor.reply("%s fake players are waiting for their join commands.".formatted(
+        joinCommandDispatcher.getPendingCount()
+    ));
+    actor.reply("%s Vault writes are queued.".formatted(vaultIntegration.getQueuedWrites()));
+    actor.reply("%s joins, %s removals (%s timed out, %s failed), %s disconnect errors.".formatted(
+        metrics.getJoinCount(),
+        metrics.getRemovalCount(),
+        metrics.getRemovalCount(RemovalReason.TIMED_OUT),
+        metrics.getRemovalCount(RemovalReason.FAILED),
+        metrics.getDisconnectErrorCount()
+    ));
+    actor.reply("%s chat messages, %s welcome messages.".formatted(
+        metrics.getChatMessageCount(),
+        metrics.getWelcomeMessageCount()
+    ));
+    actor.reply("Light clients skipped %s packets (%s bytes) without decoding them.".formatted(
+        metrics.getSkippedPacketCount(),
+        metrics.getSkippedByteCount()
+    ));
+    actor.reply("Timers: %s pending of %s owners, %s fired, %s cancelled.".formatted(
+        timingWheel.getPendingTimeouts(),
+        timingWheel.getOwnerCount(),
+        timingWheel.getFiredTimeouts(),
+        timingWheel.getCancelledTimeouts()
+    ));
+    actor.reply("Join phases in ms (median / 99th percentile / max):");
+    for (JoinPhase phase : JoinPhase.values()) {
+      var histogram = metrics.getJoinPhase(phase);
+      actor.reply("- %s: %s / %s / %s".formatted(
+          phase.name().toLowerCase(Locale.ROOT),
+          histogram.getQuantileMillis(0.5),
+          histogram.getQuantileMillis(0.99),
+          histogram.getMaxMillis()
+      ));
+    }
   }
 
   @Subcommand("setspawn")
@@ -72,6 +181,7 @@ public class RfpCommand {
     try {
       config.set("spawn-location", player.getLocation());
       config.save();
+      configYml.compileSettings();
       actor.reply("Set spawn location of fake players to your current location.");
     } catch (IOException e) {
       actor.reply("Something went wrong while setting a spawn location"
@@ -83,7 +193,10 @@ public class RfpCommand {
   @Subcommand("reload")
   public void reload(BukkitCommandActor actor) {
     try {
-      config.reload();
+      configYml.reload();
+      miniMsgAsst.invalidateTemplates();
+      fakePlayerVisibility.refresh();
+      vaultIntegration.refreshPermissions();
       actor.reply("Config reloaded.");
     } catch (IOException e) {
       actor.reply("Something went wrong whilst config was reloading,"
@@ -94,8 +207,8 @@ public class RfpCommand {
 
   @Subcommand("add")
   public void add(BukkitCommandActor actor, Either<Integer, String> args) {
-    var fakePlayersNumber = fakeLister.getRawFakePlayers().size();
-    var maxFakePlayers = config.getInt("max-fake-players");
+    var fakePlayersNumber = fakePlayerManager.getPendingCount();
+    var maxFakePlayers = configYml.getSettings().maxFakePlayers();
     args.ifFirst(number -> {
       if ((number + fakePlayersNumber) > maxFakePlayers) {
         actor.reply("Unable to add fake players, number of fake players exceeds the maximal number"
@@ -109,7 +222,7 @@ public class RfpCommand {
       if (fakePlayersNumber >= maxFakePlayers) {
         actor.reply("Unable to add a fake player, number of fake players exceeds the maximal"
             + " number of fake players (" + maxFakePlayers + ").");
-      } else if (fakeLister.getRawFakePlayersByName().containsKey(name)) {
+      } else if (fakeLister.isNameTaken(name) || joinPipeline.isQueued(name)) {
         actor.reply("Fake player " + name + " already exists!");
       } else {
         fakePlayerManager.add(name);
@@ -129,7 +242,7 @@ public class RfpCommand {
         fakePlayerManager.removeAll();
         return;
       }
-      if (fakeLister.getRawFakePlayersByName().containsKey(name)) {
+      if (fakeLister.getRawFakePlayer(name) != null || joinPipeline.isQueued(name)) {
         fakePlayerManager.remove(name);
         actor.reply(name + " fake player was removed.");
       } else {
@@ -137,4 +250,62 @@ public class RfpCommand {
       }
     });
   }
+
+  @Subcommand("ghost add")
+  public void addGhost(BukkitCommandActor actor, Either<Integer, String> args) {
+    var ghostsNumber = fakeLister.getGhostFakePlayerCount();
+    var maxGhosts = configYml.getSettings().ghostFakePlayers().max();
+    args.ifFirst(number -> {
+      if ((number + ghostsNumber) > maxGhosts) {
+        actor.reply("Unable to add ghost fake players, number of ghost fake players exceeds the"
+            + " maximal number of ghost fake players (" + maxGhosts + ").");
+      } else {
+        fakePlayerManager.addGhostNumber(number);
+        actor.reply("Added ghost fake players number " + number + ".");
+      }
+    });
+    args.ifSecond(name -> {
+      if (ghostsNumber >= maxGhosts) {
+        actor.reply("Unable to add a ghost fake player, number of ghost fake players exceeds the"
+            + " maximal number of ghost fake players (" + maxGhosts + ").");
+      } else if (!FakeNamer.isValidName(name)) {
+        actor.reply(name + " is not a valid name, it must be 3 to 16 letters, digits or"
+            + " underscores.");
+      } else if (fakeLister.isNameTaken(name) || joinPipeline.isQueued(name)) {
+        actor.reply("Fake player " + name + " already exists!");
+      } else {
+        fakePlayerManager.addGhost(name);
+        actor.reply("Added ghost fake player named " + name + ".");
+      }
+    });
+  }
+
+  @Subcommand("ghost remove")
+  public void removeGhost(BukkitCommandActor actor, Either<Integer, String> args) {
+    args.ifFirst(number -> {
+      fakePlayerManager.removeGhostNumber(number);
+      actor.reply("Attempted to remove " + number + " ghost fake players.");
+    });
+    args.ifSecond(name -> {
+      if ("all".equals(name)) {
+        fakePlayerManager.removeAllGhosts();
+        return;
+      }
+      if (fakeLister.getGhostFakePlayer(name) != null) {
+        fakePlayerManager.removeGhost(name);
+        actor.reply(name + " ghost fake player was removed.");
+      } else {
+        actor.reply(name + " no ghost fake player with that name.");
+      }
+    });
+  }
+
+  @Subcommand("ghost list")
+  public void listGhosts(BukkitCommandActor actor) {
+    actor.reply("There are %s of a max of %s ghost fake players:".formatted(
+        fakeLister.getGhostFakePlayerCount(),
+        configYml.getSettings().ghostFakePlayers().max()
+    ));
+    fakeLister.getGhostFakePlayers().forEach(ghost -> actor.reply(ghost.getName()));
+  }
 }
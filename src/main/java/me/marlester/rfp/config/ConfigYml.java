@@ -20,6 +20,7 @@ package me.marlester.rfp.config;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import dev.dejvokep.boostedyaml.YamlDocument;
+import java.io.IOException;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ import lombok.SneakyThrows;
 
 /**
  * Class used for creating config.yml.
+ * It also holds the compiled {@link RfpSettings} of it, swapped atomically on every reload.
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
@@ -38,6 +40,12 @@ public class ConfigYml {
   @Getter
   private YamlDocument configuration;
 
+  /**
+   * The current compiled settings, read this instead of the configuration on hot paths.
+   */
+  @Getter
+  private volatile RfpSettings settings;
+
   private boolean created;
 
   @SneakyThrows
@@ -46,6 +54,25 @@ public class ConfigYml {
       return;
     }
     configuration = yamlDocEngineer.create(FILE_NAME, true);
+    settings = RfpSettings.compile(configuration);
     created = true;
   }
+
+  /**
+   * Reloads the configuration from the disk and swaps the compiled settings.
+   *
+   * @throws IOException if the configuration couldn't be loaded.
+   */
+  public void reload() throws IOException {
+    configuration.reload();
+    compileSettings();
+  }
+
+  /**
+   * Compiles the settings of the configuration again and swaps them.
+   * Call it after changing the configuration in memory.
+   */
+  public void compileSettings() {
+    settings = RfpSettings.compile(configuration);
+  }
 }
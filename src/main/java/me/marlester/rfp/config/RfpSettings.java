@@ -0,0 +1,504 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.config;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import dev.dejvokep.boostedyaml.YamlDocument;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Typed, immutable snapshot of config.yml.
+ * It's compiled once when the config is loaded or reloaded, so hot paths read plain fields
+ * instead of walking the YAML document.
+ *
+ * @param maxFakePlayers     maximum number of fake players.
+ * @param ghostFakePlayers   tab list only fake players.
+ * @param blockInteraction   blocking commands having fake players' names.
+ * @param invulnerable       whether fake players are invulnerable.
+ * @param noCollision        whether fake players don't collide.
+ * @param noGravity          whether fake players aren't affected by gravity.
+ * @param invisibilityEffect whether fake players get an invisibility effect.
+ * @param spawnLocation      spawn location of fake players, null if unset.
+ *                           Locations are mutable, so don't modify it, clone it.
+ * @param hide               hiding of fake players from other players.
+ * @param lowFootprint       whether fake players load as few chunks as possible.
+ * @param discardPlayerData  whether fake players' data is never saved.
+ * @param joinCommands       commands executed when a fake player joins.
+ * @param quitCommands       commands executed when a fake player quits.
+ * @param joinIp             ip fake players join to.
+ * @param joinPort           port fake players join to.
+ * @param transport          how fake players connect to the server.
+ * @param lightClient        whether fake players skip decoding packets they don't need.
+ * @param sidecar            hosting of fake players' clients in a separate process.
+ * @param joinPipeline       ramping of fake player joins.
+ * @param autoJoin           automatic adding of fake players.
+ * @param autoQuit           automatic leaving of fake players.
+ * @param populationControl  steering of the number of fake players towards a target.
+ * @param loadGovernor       throttling of fake players' activity under load.
+ * @param welcome            welcoming of joining players.
+ * @param chatting           automatic chatting of fake players.
+ * @param vaultIntegration   permissions and groups for fake players.
+ * @param updateCheck        update check configuration.
+ * @param metrics            exposing of the plugin's metrics.
+ */
+public record RfpSettings(
+    int maxFakePlayers,
+    GhostFakePlayers ghostFakePlayers,
+    BlockInteraction blockInteraction,
+    boolean invulnerable,
+    boolean noCollision,
+    boolean noGravity,
+    boolean invisibilityEffect,
+    @Nullable Location spawnLocation,
+    Hide hide,
+    boolean lowFootprint,
+    boolean discardPlayerData,
+    Commands joinCommands,
+    Commands quitCommands,
+    String joinIp,
+    int joinPort,
+    Transport transport,
+    boolean lightClient,
+    Sidecar sidecar,
+    JoinPipeline joinPipeline,
+    AutoJoin autoJoin,
+    AutoQuit autoQuit,
+    PopulationControl populationControl,
+    LoadGovernor loadGovernor,
+    Welcome welcome,
+    Chatting chatting,
+    VaultIntegration vaultIntegration,
+    UpdateCheck updateCheck,
+    Metrics metrics
+) {
+
+  /**
+   * Compiles the settings from the config.
+   *
+   * @param config config.yml document.
+   * @return compiled settings.
+   */
+  public static RfpSettings compile(YamlDocument config) {
+    return new RfpSettings(
+        config.getInt("max-fake-players"),
+        new GhostFakePlayers(
+            config.getOptionalInt("ghost-fake-players.max").orElse(100),
+            config.getOptionalBoolean("ghost-fake-players.server-list").orElse(true)
+        ),
+        new BlockInteraction(
+            config.getBoolean("block-interaction.enable"),
+            config.getString("block-interaction.message", "")
+        ),
+        config.getBoolean("invulnerable"),
+        config.getBoolean("no-collision"),
+        config.getBoolean("no-gravity"),
+        config.getBoolean("invisibility-effect"),
+        config.getAsOptional("spawn-location", Location.class).orElse(null),
+        Hide.compile(config),
+        config.getOptionalBoolean("low-footprint").orElse(false),
+        config.getOptionalBoolean("discard-player-data").orElse(false),
+        Commands.compile(config, "join-commands"),
+        Commands.compile(config, "quit-commands"),
+        config.getOptionalString("join-ip").orElse("localhost"),
+        config.getOptionalInt("join-port").orElse(Bukkit.getPort()),
+        Transport.compile(config.getOptionalString("transport").orElse("tcp")),
+        config.getOptionalBoolean("light-client").orElse(false),
+        new Sidecar(
+            config.getOptionalBoolean("sidecar.enable").orElse(false),
+            config.getOptionalString("sidecar.socket").orElse("sidecar.sock")
+        ),
+        new JoinPipeline(
+            Math.max(1, config.getOptionalInt("join-pipeline.max-in-flight").orElse(5)),
+            Math.max(0.05, config.getOptionalDouble("join-pipeline.joins-per-second").orElse(2.0))
+        ),
+        new AutoJoin(
+            config.getBoolean("auto-join.enable"),
+            config.getInt("auto-join.startup-delay"),
+            Range.compile(config, "auto-join.delay")
+        ),
+        new AutoQuit(
+            config.getBoolean("auto-quit.enable"),
+            Range.compile(config, "auto-quit.delay")
+        ),
+        PopulationControl.compile(config),
+        new LoadGovernor(
+            config.getOptionalBoolean("load-governor.enable").orElse(true),
+            config.getOptionalDouble("load-governor.elevated-mspt").orElse(40.0),
+            config.getOptionalDouble("load-governor.critical-mspt").orElse(48.0),
+            config.getOptionalDouble("load-governor.recovery-margin").orElse(5.0)
+        ),
+        new Welcome(
+            config.getBoolean("welcome.enable"),
+            config.getInt("welcome.chance"),
+            config.getInt("welcome.frequency"),
+            config.getInt("welcome.max-welcomers"),
+            config.getInt("welcome.period"),
+            Range.compile(config, "welcome.delay"),
+            stringList(config, "welcome.first-join-messages"),
+            stringList(config, "welcome.rejoin-messages")
+        ),
+        new Chatting(
+            config.getBoolean("chatting.enable"),
+            config.getInt("chatting.max-chatters"),
+            config.getInt("chatting.period"),
+            Range.compile(config, "chatting.first-delay"),
+            Range.compile(config, "chatting.delay"),
+            stringList(config, "chatting.messages"),
+            stringList(config, "chatting.first-messages")
+        ),
+        new VaultIntegration(
+            config.getBoolean("vault-integration.enable"),
+            stringList(config, "vault-integration.groups"),
+            stringList(config, "vault-integration.permissions"),
+            config.getOptionalBoolean("vault-integration.transient-permissions").orElse(false)
+        ),
+        new UpdateCheck(
+            config.getBoolean("update-check.on-startup"),
+            config.getBoolean("update-check.notify-staff"),
+            config.getOptionalString("update-check.curse-api-key").orElse(null),
+            config.getOptionalString("update-check.curse-api-url").orElse(null),
+            config.getOptionalInt("update-check.curse-project-id").orElse(null),
+            config.getOptionalInt("update-check.cache-ttl").orElse(null)
+        ),
+        new Metrics(
+            config.getOptionalBoolean("metrics.jmx").orElse(true),
+            config.getOptionalString("metrics.prometheus-file")
+                .filter(file -> !file.isBlank())
+                .orElse(null),
+            Math.max(1, config.getOptionalInt("metrics.prometheus-interval").orElse(15))
+        )
+    );
+  }
+
+  private static ImmutableList<String> stringList(YamlDocument config, String route) {
+    return ImmutableList.copyOf(config.getOptionalStringList(route).orElse(List.of()));
+  }
+
+  /**
+   * An inclusive range of integers, usually of seconds.
+   *
+   * @param min minimal value.
+   * @param max maximal value.
+   */
+  public record Range(int min, int max) {
+
+    static Range compile(YamlDocument config, String route) {
+      return new Range(config.getInt(route + ".min"), config.getInt(route + ".max"));
+    }
+
+    /**
+     * Returns a random value of this range.
+     *
+     * @return random value between min and max, both inclusive.
+     */
+    public int random() {
+      return ThreadLocalRandom.current().nextInt(min, max + 1);
+    }
+  }
+
+  /**
+   * Ghost fake players, existing only in the tab list and the server list.
+   *
+   * @param max        maximum number of ghost fake players.
+   * @param serverList whether ghost fake players are added to the server list.
+   */
+  public record GhostFakePlayers(int max, boolean serverList) {
+  }
+
+  /**
+   * Blocking commands having fake players' names.
+   *
+   * @param enable  whether the blocking is enabled.
+   * @param message message shown upon command block.
+   */
+  public record BlockInteraction(boolean enable, String message) {
+  }
+
+  /**
+   * Commands executed on some action of a fake player, empty lists if unset.
+   *
+   * @param asConsole    commands dispatched by the console.
+   * @param asFakePlayer commands performed by the fake player.
+   * @param perTick      maximal number of the commands dispatched per tick.
+   */
+  public record Commands(ImmutableList<String> asConsole, ImmutableList<String> asFakePlayer,
+                         int perTick) {
+
+    static Commands compile(YamlDocument config, String route) {
+      return new Commands(
+          stringList(config, route + ".as-console"),
+          stringList(config, route + ".as-fake-player"),
+          Math.max(1, config.getOptionalInt(route + ".per-tick").orElse(20))
+      );
+    }
+  }
+
+  /**
+   * Hiding of fake players from other players.
+   *
+   * @param enable        whether fake players are hidden.
+   * @param seePermission whether players with the see permission still see fake players.
+   * @param worlds        worlds fake players are hidden in, all worlds if empty.
+   */
+  public record Hide(boolean enable, boolean seePermission, ImmutableSet<String> worlds) {
+
+    static Hide compile(YamlDocument config) {
+      return new Hide(
+          config.getBoolean("hide"),
+          config.getOptionalBoolean("hide-rules.see-permission").orElse(false),
+          ImmutableSet.copyOf(stringList(config, "hide-rules.worlds"))
+      );
+    }
+  }
+
+  /**
+   * How fake players connect to the server.
+   */
+  public enum Transport {
+    /**
+     * A real TCP connection to join-ip and join-port.
+     */
+    TCP,
+    /**
+     * An in-process channel bound next to the server's own listeners.
+     */
+    LOCAL;
+
+    static Transport compile(String value) {
+      return "local".equalsIgnoreCase(value.trim()) ? LOCAL : TCP;
+    }
+  }
+
+  /**
+   * Hosting of fake players' clients in a separate process.
+   *
+   * @param enable whether fake players' clients are hosted by the sidecar.
+   * @param socket path of the sidecar's Unix domain socket, relative to the plugin's folder.
+   */
+  public record Sidecar(boolean enable, String socket) {
+  }
+
+  /**
+   * Ramping of fake player joins, requested joins are queued and admitted gradually.
+   *
+   * @param maxInFlight    how many fake players can be logging in at once.
+   * @param joinsPerSecond how many fake players can start logging in per second.
+   */
+  public record JoinPipeline(int maxInFlight, double joinsPerSecond) {
+  }
+
+  /**
+   * Automatic adding of fake players.
+   *
+   * @param enable       whether auto join is enabled.
+   * @param startupDelay delay on the startup.
+   * @param delay        delay between joins.
+   */
+  public record AutoJoin(boolean enable, int startupDelay, Range delay) {
+  }
+
+  /**
+   * Automatic leaving of fake players.
+   *
+   * @param enable whether auto quit is enabled.
+   * @param delay  delay after which a fake player leaves.
+   */
+  public record AutoQuit(boolean enable, Range delay) {
+  }
+
+  /**
+   * Steering of the number of fake players towards a target.
+   *
+   * @param enable     whether population control is enabled.
+   * @param mode       how the target is determined.
+   * @param target     target of the constant mode.
+   * @param curve      target of the curve mode by the hour of the day, sorted by hours,
+   *                   interpolated between them.
+   * @param ratio      fake players per real player in the ratio mode.
+   * @param min        the target never goes below this.
+   * @param interval   seconds between adjustments.
+   * @param maxStep    how many fake players can join or quit per adjustment.
+   * @param msptBudget average milliseconds per tick above which no fake players join.
+   */
+  public record PopulationControl(boolean enable, PopulationMode mode, int target,
+                                  ImmutableList<CurvePoint> curve, double ratio, int min,
+                                  int interval, int maxStep, double msptBudget) {
+
+    static PopulationControl compile(YamlDocument config) {
+      var curve = ImmutableList.<CurvePoint>builder();
+      stringList(config, "population-control.curve").stream()
+          .map(CurvePoint::parse)
+          .filter(Objects::nonNull)
+          .sorted(Comparator.comparingInt(CurvePoint::hour))
+          .forEach(curve::add);
+      return new PopulationControl(
+          config.getOptionalBoolean("population-control.enable").orElse(false),
+          PopulationMode.compile(config.getOptionalString("population-control.mode")
+              .orElse("constant")),
+          config.getOptionalInt("population-control.target").orElse(20),
+          curve.build(),
+          config.getOptionalDouble("population-control.ratio").orElse(1.0),
+          config.getOptionalInt("population-control.min").orElse(0),
+          Math.max(1, config.getOptionalInt("population-control.interval").orElse(10)),
+          Math.max(1, config.getOptionalInt("population-control.max-step").orElse(2)),
+          config.getOptionalDouble("population-control.mspt-budget").orElse(45.0)
+      );
+    }
+  }
+
+  /**
+   * Throttling of fake players' activity under load.
+   *
+   * @param enable         whether the governor is enabled.
+   * @param elevatedMspt   average milliseconds per tick of the elevated state.
+   * @param criticalMspt   average milliseconds per tick of the critical state.
+   * @param recoveryMargin how far below a threshold the average must drop to leave its state.
+   */
+  public record LoadGovernor(boolean enable, double elevatedMspt, double criticalMspt,
+                             double recoveryMargin) {
+  }
+
+  /**
+   * How the target of population control is determined.
+   */
+  public enum PopulationMode {
+    /**
+     * A fixed number.
+     */
+    CONSTANT,
+    /**
+     * A number changing with the time of the day.
+     */
+    CURVE,
+    /**
+     * A number proportional to the number of real players.
+     */
+    RATIO;
+
+    static PopulationMode compile(String value) {
+      return switch (value.trim().toLowerCase(Locale.ROOT)) {
+        case "curve" -> CURVE;
+        case "ratio" -> RATIO;
+        default -> CONSTANT;
+      };
+    }
+  }
+
+  /**
+   * A point of the population curve.
+   *
+   * @param hour   hour of the day, 0-23.
+   * @param target target at that hour.
+   */
+  public record CurvePoint(int hour, int target) {
+
+    static @Nullable CurvePoint parse(String value) {
+      String[] parts = value.split(":");
+      if (parts.length != 2) {
+        return null;
+      }
+      try {
+        int hour = Integer.parseInt(parts[0].trim());
+        int target = Integer.parseInt(parts[1].trim());
+        return hour >= 0 && hour < 24 ? new CurvePoint(hour, target) : null;
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Welcoming of joining players.
+   *
+   * @param enable            whether welcoming is enabled.
+   * @param chance            chance of being welcomed, in percents.
+   * @param frequency         how often a player can be welcomed.
+   * @param maxWelcomers      how many fake players can welcome at a period.
+   * @param period            period for max welcomers.
+   * @param delay             delay of a welcome.
+   * @param firstJoinMessages messages sent when a player joins for the first time.
+   * @param rejoinMessages    messages sent when a player rejoins.
+   */
+  public record Welcome(boolean enable, int chance, int frequency, int maxWelcomers, int period,
+                        Range delay, ImmutableList<String> firstJoinMessages,
+                        ImmutableList<String> rejoinMessages) {
+  }
+
+  /**
+   * Automatic chatting of fake players.
+   *
+   * @param enable        whether chatting is enabled.
+   * @param maxChatters   how many fake players can chat at a period.
+   * @param period        period for max chatters.
+   * @param firstDelay    delay of the first message.
+   * @param delay         delay between messages.
+   * @param messages      random messages.
+   * @param firstMessages random first messages.
+   */
+  public record Chatting(boolean enable, int maxChatters, int period, Range firstDelay,
+                         Range delay, ImmutableList<String> messages,
+                         ImmutableList<String> firstMessages) {
+  }
+
+  /**
+   * Vault integration, permissions and groups for fake players.
+   *
+   * @param enable      whether the integration is enabled.
+   * @param groups      groups one of which is granted, empty if unset.
+   * @param permissions permissions granted, empty if unset.
+   * @param transientPermissions whether permissions are granted in memory only, without Vault.
+   */
+  public record VaultIntegration(boolean enable, ImmutableList<String> groups,
+                                 ImmutableList<String> permissions,
+                                 boolean transientPermissions) {
+  }
+
+  /**
+   * Update check configuration.
+   *
+   * @param onStartup      whether updates are checked on the startup.
+   * @param notifyStaff    whether staff is notified on join.
+   * @param curseApiKey    curseforge's api key, null if unset.
+   * @param curseApiUrl    curseforge's api url, null if unset.
+   * @param curseProjectId curseforge's project id, null if unset.
+   * @param cacheTtl       how long a result is remembered, null if unset.
+   */
+  public record UpdateCheck(boolean onStartup, boolean notifyStaff, @Nullable String curseApiKey,
+                            @Nullable String curseApiUrl, @Nullable Integer curseProjectId,
+                            @Nullable Integer cacheTtl) {
+  }
+
+  /**
+   * Exposing of the plugin's metrics.
+   *
+   * @param jmx                whether the metrics are exposed over JMX.
+   * @param prometheusFile     file in the plugin's folder the metrics are written to,
+   *                           null if unset.
+   * @param prometheusInterval seconds between writes of the file.
+   */
+  public record Metrics(boolean jmx, @Nullable String prometheusFile, int prometheusInterval) {
+  }
+}
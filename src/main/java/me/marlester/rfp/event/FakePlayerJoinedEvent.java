@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.event;
+
+import lombok.Getter;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called once a fake player has fully joined and has been set up.
+ * Also called for ghost fake players, which have no {@link org.bukkit.entity.Player}.
+ */
+public class FakePlayerJoinedEvent extends Event {
+
+  private static final HandlerList HANDLERS = new HandlerList();
+
+  /**
+   * The joined fake player.
+   */
+  @Getter
+  private final FakePlayer fakePlayer;
+
+  /**
+   * Creates the event.
+   *
+   * @param fakePlayer the joined fake player.
+   */
+  public FakePlayerJoinedEvent(FakePlayer fakePlayer) {
+    this.fakePlayer = fakePlayer;
+  }
+
+  @Override
+  public HandlerList getHandlers() {
+    return HANDLERS;
+  }
+
+  /**
+   * Returns the handlers of this event, required by Bukkit.
+   *
+   * @return the handler list.
+   */
+  public static HandlerList getHandlerList() {
+    return HANDLERS;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.event;
+
+import lombok.Getter;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.fakeplayers.RemovalReason;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+
+/**
+ * Called when the removal of a fake player is requested, whether it joined or not.
+ * The fake player is already removed from all the systems of the plugin, but its in-game
+ * player, if any, may still be online at that moment. Use
+ * {@link FakePlayer#getRemovalFuture()} to know when it has left the server.
+ */
+public class FakePlayerRemovedEvent extends Event {
+
+  private static final HandlerList HANDLERS = new HandlerList();
+
+  /**
+   * The removed fake player.
+   */
+  @Getter
+  private final FakePlayer fakePlayer;
+  /**
+   * Why the fake player was removed.
+   */
+  @Getter
+  private final RemovalReason reason;
+
+  /**
+   * Creates the event.
+   *
+   * @param fakePlayer the removed fake player.
+   * @param reason     why the fake player was removed.
+   */
+  public FakePlayerRemovedEvent(FakePlayer fakePlayer, RemovalReason reason) {
+    this.fakePlayer = fakePlayer;
+    this.reason = reason;
+  }
+
+  @Override
+  public HandlerList getHandlers() {
+    return HANDLERS;
+  }
+
+  /**
+   * Returns the handlers of this event, required by Bukkit.
+   *
+   * @return the handler list.
+   */
+  public static HandlerList getHandlerList() {
+    return HANDLERS;
+  }
+}
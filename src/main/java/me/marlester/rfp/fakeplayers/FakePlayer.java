@@ -19,8 +19,9 @@ package me.marlester.rfp.fakeplayers;
 
 import com.github.steveice10.packetlib.Session;
 import java.util.UUID;
-import me.marlester.rfp.listener.fakeplayerjoinlistener.FakePlayerJoinListener;
+import java.util.concurrent.CompletableFuture;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
 
 /**
  * Represents a fake player, connected or not.
@@ -52,7 +53,8 @@ public interface FakePlayer {
   Player getPlayer();
 
   /**
-   * Sets the {@link Player} of this fake player.
+   * Sets the {@link Player} of this fake player.<br>
+   * Ghost fake players never have a {@link Player}, for them this does nothing.
    *
    * @param value Player instance.
    */
@@ -84,11 +86,32 @@ public interface FakePlayer {
   boolean isRemoved();
 
   /**
-   * Sets the {@link FakePlayerJoinListener} of this fake player.
+   * Returns whether this is a ghost fake player.<br>
+   * Ghost fake players exist only in the tab list and the server list, they have no session,
+   * no {@link Player} and no key.
    *
-   * @param value FakePlayerJoinListener instance.
+   * @return true if a ghost fake player.
    */
-  void setJoinListener(FakePlayerJoinListener value);
+  default boolean isGhost() {
+    return false;
+  }
+
+  /**
+   * Returns a future completed with this fake player once it has fully joined and has been set
+   * up, on the main thread. If it's removed before that, the future completes exceptionally
+   * with a {@link FakePlayerRemovedException}.
+   *
+   * @return the join future.
+   */
+  CompletableFuture<FakePlayer> getJoinFuture();
+
+  /**
+   * Returns a future completed with this fake player once it has been removed and its in-game
+   * player, if any, has left the server, on the main thread.
+   *
+   * @return the removal future.
+   */
+  CompletableFuture<FakePlayer> getRemovalFuture();
 
   /**
    * Tries to connect this fake player to the server.
@@ -100,5 +123,26 @@ public interface FakePlayer {
    * Disconnects from server, removes from fake player lists, etc.
    * Will not try to remove if already removed.
    */
-  void remove();
+  default void remove() {
+    remove(RemovalReason.REMOVED);
+  }
+
+  /**
+   * Removes this fake player from all the systems, see {@link #remove()}.
+   *
+   * @param reason why the fake player is removed.
+   */
+  void remove(RemovalReason reason);
+
+  /**
+   * Called by the plugin once this fake player has fully joined and has been set up.
+   */
+  @ApiStatus.Internal
+  void handleJoined();
+
+  /**
+   * Called by the plugin once the in-game player of this fake player has left the server.
+   */
+  @ApiStatus.Internal
+  void handleQuit();
 }
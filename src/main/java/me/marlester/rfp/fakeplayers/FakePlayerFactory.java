@@ -17,6 +17,11 @@
 
 package me.marlester.rfp.fakeplayers;
 
+import com.google.inject.name.Named;
+
 interface FakePlayerFactory {
   FakePlayer create(String name);
+
+  @Named("ghost")
+  FakePlayer createGhost(String name);
 }
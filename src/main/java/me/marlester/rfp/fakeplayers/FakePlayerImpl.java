@@ -25,9 +25,11 @@ import com.github.steveice10.mc.protocol.data.game.setting.SkinPart;
 import com.github.steveice10.mc.protocol.packet.common.clientbound.ClientboundResourcePackPushPacket;
 import com.github.steveice10.mc.protocol.packet.common.serverbound.ServerboundClientInformationPacket;
 import com.github.steveice10.mc.protocol.packet.common.serverbound.ServerboundResourcePackPacket;
+import com.github.steveice10.mc.protocol.packet.login.clientbound.ClientboundGameProfilePacket;
 import com.github.steveice10.mc.protocol.packet.login.serverbound.ServerboundHelloPacket;
 import com.github.steveice10.mc.protocol.packet.login.serverbound.ServerboundLoginAcknowledgedPacket;
 import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.event.session.ConnectedEvent;
 import com.github.steveice10.packetlib.event.session.DisconnectedEvent;
 import com.github.steveice10.packetlib.event.session.PacketSendingEvent;
 import com.github.steveice10.packetlib.event.session.SessionAdapter;
@@ -35,22 +37,30 @@ import com.github.steveice10.packetlib.packet.Packet;
 import com.github.steveice10.packetlib.tcp.TcpClientSession;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.config.RfpSettings;
+import me.marlester.rfp.event.FakePlayerJoinedEvent;
+import me.marlester.rfp.event.FakePlayerRemovedEvent;
 import me.marlester.rfp.faketools.FakeLister;
-import me.marlester.rfp.listener.fakeplayerjoinlistener.FakePlayerJoinListener;
-import me.marlester.rfp.listener.fakeplayerjoinlistener.FakePlayerJoinListenerFactory;
+import me.marlester.rfp.faketools.FakeNamer;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
+import me.marlester.rfp.metrics.JoinPhase;
+import me.marlester.rfp.sidecar.SidecarConnector;
+import me.marlester.rfp.timer.TimingWheel;
+import me.marlester.rfp.transport.LightClientProtocol;
+import me.marlester.rfp.transport.LocalTransport;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -58,11 +68,14 @@ import org.bukkit.entity.Player;
 @RequiredArgsConstructor(onConstructor_ = {@AssistedInject}, access = AccessLevel.PACKAGE)
 class FakePlayerImpl implements FakePlayer {
 
-  private final FakeLister fakeLister;
-  @Named("config")
-  private final YamlDocument config;
   private final ReallyFakePlayers pl;
-  private final FakePlayerJoinListenerFactory joinListenerFactory;
+  private final FakeLister fakeLister;
+  private final FakeNamer fakeNamer;
+  private final ConfigYml configYml;
+  private final TimingWheel timingWheel;
+  private final LocalTransport localTransport;
+  private final SidecarConnector sidecarConnector;
+  private final FakePlayerMetrics metrics;
   private final ComponentLogger logger;
 
   @Getter
@@ -79,29 +92,110 @@ class FakePlayerImpl implements FakePlayer {
   private Player player;
   @Getter
   private boolean removed;
-
-  @Setter
-  private FakePlayerJoinListener joinListener;
+  private boolean hostedBySidecar;
+  /**
+   * {@link System#nanoTime()} of the join phases' starts, the later ones are set on the client's
+   * network thread.
+   */
+  private long joinStartedAt;
+  private volatile long connectedAt;
+  private volatile long loggedInAt;
+  @Getter
+  private final CompletableFuture<FakePlayer> joinFuture = new CompletableFuture<>();
+  @Getter
+  private final CompletableFuture<FakePlayer> removalFuture = new CompletableFuture<>();
 
   public void join() {
     if (removed) {
       return;
     }
+    joinStartedAt = System.nanoTime();
     // LoginListenerAsm.java takes part in applying this uuid further
     uuid = FakePlayerUuidUtil.createFakePlayerUuid(name);
-    fakeLister.getRawFakePlayers().add(this);
-    fakeLister.getRawFakePlayersByName().put(name, this);
-    fakeLister.getRawFakePlayersByUuid().put(uuid, this);
+    fakeNamer.claimName(name);
+    fakeLister.register(this);
+    var settings = configYml.getSettings();
+    if (settings.discardPlayerData()) {
+      fakeLister.getDiscardedDataUuids().add(uuid);
+    }
     var fakePlayerUuidsByKey = fakeLister.getFakePlayerUuidsByKey();
     do {
       // Ain't no way they can crack this key
       key = UUID.randomUUID();
     } while (fakePlayerUuidsByKey.containsKey(key));
     fakePlayerUuidsByKey.put(key, uuid);
-    String host = config.getOptionalString("join-ip").orElse("localhost");
-    int port = config.getOptionalInt("join-port").orElse(Bukkit.getPort());
-    var protocol = new MinecraftProtocol(name);
-    client = new TcpClientSession(host, port, protocol);
+    if (settings.sidecar().enable()) {
+      hostedBySidecar = true;
+      // Removed as failed by the connector if the sidecar can't be reached
+      sidecarConnector.join(this, settings.joinIp(), settings.joinPort());
+    } else {
+      connect(settings);
+    }
+    timingWheel.schedule(this, 30 * 20, () -> {
+      if (!removed && player == null) {
+        logger.error("Fake player " + name
+            + " doesn't seem to show any life signs after ~30 seconds,"
+            + " meaning he didn't join/quit correctly! Aborting!");
+        remove(RemovalReason.TIMED_OUT);
+      }
+    });
+  }
+
+  public void remove(RemovalReason reason) {
+    if (removed) {
+      return;
+    }
+    boolean stopping = Bukkit.getServer().isStopping();
+    // On shutdown all sessions are closed at once by the FakePlayerManager
+    if (!stopping && reason != RemovalReason.SHUTDOWN) {
+      if (hostedBySidecar) {
+        sidecarConnector.remove(this);
+      } else if (client != null) {
+        client.disconnect("Removed");
+      }
+    }
+    timingWheel.cancelAll(this);
+    fakeLister.unregister(this);
+    fakeNamer.releaseName(name);
+    removed = true;
+    metrics.countRemoval(reason);
+    Bukkit.getPluginManager().callEvent(new FakePlayerRemovedEvent(this, reason));
+    joinFuture.completeExceptionally(new FakePlayerRemovedException(name, reason));
+    if (player == null || stopping || reason == RemovalReason.SHUTDOWN
+        || reason == RemovalReason.QUIT || !player.isOnline()) {
+      removalFuture.complete(this);
+    } else {
+      // Completed once the in-game player has left, see handleQuit()
+      fakeLister.addPendingQuit(this);
+    }
+  }
+
+  @Override
+  public void handleJoined() {
+    if (loggedInAt != 0) {
+      metrics.recordJoinPhase(JoinPhase.SETUP, loggedInAt);
+    }
+    metrics.recordJoinPhase(JoinPhase.TOTAL, joinStartedAt);
+    metrics.countJoin();
+    Bukkit.getPluginManager().callEvent(new FakePlayerJoinedEvent(this));
+    joinFuture.complete(this);
+  }
+
+  @Override
+  public void handleQuit() {
+    remove(RemovalReason.QUIT);
+    removalFuture.complete(this);
+  }
+
+  private void connect(RfpSettings settings) {
+    var protocol = settings.lightClient()
+        ? new LightClientProtocol(name, metrics)
+        : new MinecraftProtocol(name);
+    if (settings.transport() == RfpSettings.Transport.LOCAL) {
+      client = localTransport.createSession(protocol);
+    } else {
+      client = new TcpClientSession(settings.joinIp(), settings.joinPort(), protocol);
+    }
     client.addListener(new SessionAdapter() {
       @Override
       public void packetSending(PacketSendingEvent event) {
@@ -111,9 +205,20 @@ class FakePlayerImpl implements FakePlayer {
         }
       }
 
+      @Override
+      public void connected(ConnectedEvent event) {
+        connectedAt = System.nanoTime();
+        metrics.recordJoinPhase(JoinPhase.CONNECT, joinStartedAt);
+      }
+
       // TODO move all of this outta here
       @Override
       public void packetReceived(Session session, Packet packet) {
+        if (packet instanceof ClientboundGameProfilePacket) {
+          loggedInAt = System.nanoTime();
+          metrics.recordJoinPhase(JoinPhase.LOGIN, connectedAt);
+          return;
+        }
         if (packet instanceof ClientboundResourcePackPushPacket rpPacket) {
           if (!isValidResourcePackUrl(rpPacket.getUrl())) {
             session.send(new ServerboundResourcePackPacket(rpPacket.getId(),
@@ -140,40 +245,26 @@ class FakePlayerImpl implements FakePlayer {
       }
 
       /* If you wonder why we don't remove the fake player here, it's because it's fundamentally
-       * unstable to do so here, instead it happens in the FakePlayerQuitListener.java */
+       * unstable to do so here, instead it happens in the FakePlayerQuitListener.java
+       * A fake player which never got in-game has no quit though, so it's removed on the main
+       * thread instead of waiting for the liveness check */
       @Override
       public void disconnected(DisconnectedEvent event) {
         var cause = event.getCause();
         if (cause != null) {
           logger.warn("Fake player " + name + " disconnected with an error!", cause);
+          metrics.countDisconnectError();
         }
+        if (!pl.isEnabled()) {
+          return;
+        }
+        Bukkit.getScheduler().runTask(pl, () -> {
+          if (!removed && player == null) {
+            remove(RemovalReason.FAILED);
+          }
+        });
       }
     });
     client.connect();
-    joinListener = joinListenerFactory.create(this);
-    joinListener.startListening();
-    Bukkit.getScheduler().runTaskLater(pl, () -> {
-      if (!removed && player == null) {
-        logger.error("Fake player " + name
-            + " doesn't seem to show any life signs after ~30 seconds,"
-            + " meaning he didn't join/quit correctly! Aborting!");
-        remove();
-      }
-    }, 30 * 20);
-  }
-
-  public void remove() {
-    if (removed) {
-      return;
-    }
-    if (joinListener != null) {
-      joinListener.stopListening();
-      joinListener = null;
-    }
-    if (!Bukkit.getServer().isStopping()) {
-      client.disconnect("Removed");
-    }
-    fakeLister.removeFakePlayerFromAllMaps(this);
-    removed = true;
   }
 }
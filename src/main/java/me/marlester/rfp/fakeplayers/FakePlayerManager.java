@@ -17,14 +17,24 @@
 
 package me.marlester.rfp.fakeplayers;
 
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.event.session.DisconnectedEvent;
+import com.github.steveice10.packetlib.event.session.SessionAdapter;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.faketools.FakeLister;
 import me.marlester.rfp.faketools.FakeNamer;
+import me.marlester.rfp.ghost.GhostTabList;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import org.jetbrains.annotations.ApiStatus;
 
 /**
@@ -36,38 +46,98 @@ import org.jetbrains.annotations.ApiStatus;
 @Singleton
 public class FakePlayerManager {
 
-  @Named("config")
-  private final YamlDocument config;
+  /**
+   * How long {@link #shutdown()} waits for the sessions of fake players to close at most.
+   */
+  private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+
+  private final ConfigYml configYml;
   private final FakePlayerFactory fakePlayerFactory;
   private final FakeLister fakeLister;
   private final FakeNamer fakeNamer;
+  private final JoinPipeline joinPipeline;
+  private final GhostTabList ghostTabList;
+  private final ComponentLogger logger;
 
   /**
    * Adds a fake player. It's like inviting an imaginary friend to your party.
+   * The fake player is queued in the {@link JoinPipeline}, so it might take a while to join.
    *
    * @param name The name of the fake player. It must meet the Minecraft Java profile name
    *             requirements. Stick to their rules or no dice.
    */
   public void add(String name) {
-    int maximum = config.getInt("max-fake-players");
-    if (fakeLister.getRawFakePlayers().size() >= maximum) {
+    if (getFreeSlots() <= 0 || joinPipeline.isQueued(name) || fakeLister.isNameTaken(name)) {
       return;
     }
-    fakePlayerFactory.create(name).join();
+    fakeNamer.claimName(name);
+    joinPipeline.enqueue(fakePlayerFactory.create(name));
+  }
+
+  /**
+   * Adds a fake player and returns its join future, so its join can be awaited without polling.
+   * The fake player is queued in the {@link JoinPipeline}, so it might take a while to join.
+   *
+   * @param name The name of the fake player, same rules as for {@link #add(String)}.
+   * @return a future completed with the fake player once it has fully joined, completed
+   *         exceptionally with an {@link IllegalStateException} if it can't be added, or with
+   *         a {@link FakePlayerRemovedException} if it's removed before joining.
+   * @see FakePlayer#getJoinFuture()
+   */
+  public CompletableFuture<FakePlayer> join(String name) {
+    if (getFreeSlots() <= 0) {
+      return CompletableFuture.failedFuture(new IllegalStateException(
+          "The maximum of fake players is reached!"));
+    }
+    if (joinPipeline.isQueued(name) || fakeLister.isNameTaken(name)) {
+      return CompletableFuture.failedFuture(new IllegalStateException(
+          "Fake player " + name + " already exists!"));
+    }
+    fakeNamer.claimName(name);
+    var fakePlayer = fakePlayerFactory.create(name);
+    joinPipeline.enqueue(fakePlayer);
+    return fakePlayer.getJoinFuture();
+  }
+
+  /**
+   * Adds a fake player named by the {@link FakeNamer} and returns its join future,
+   * see {@link #join(String)}.
+   *
+   * @return a future completed with the fake player once it has fully joined.
+   */
+  public CompletableFuture<FakePlayer> join() {
+    if (fakeNamer.getFreeNameCount() == 0) {
+      return CompletableFuture.failedFuture(new IllegalStateException(
+          "All names from name-list.yml are in use!"));
+    }
+    if (getFreeSlots() <= 0) {
+      return CompletableFuture.failedFuture(new IllegalStateException(
+          "The maximum of fake players is reached!"));
+    }
+    var fakePlayer = fakePlayerFactory.create(fakeNamer.takeRandomName());
+    joinPipeline.enqueue(fakePlayer);
+    return fakePlayer.getJoinFuture();
   }
 
   /**
    * Adds a number of fake players. Because the more, the merrier, right?
    * Their names are being acquired via the grand {@link FakeNamer}.
+   * Stops early if the maximum of fake players is reached or the names ran out.
+   * The fake players are queued in the {@link JoinPipeline}, so they join gradually.
    *
    * @param number How many fake friends you want to add. Keep it positive, and
    *               within the bounds of sanity.
-   * @see FakeNamer#getRandomName() FakeNamer's name getting procedure.
+   * @see FakeNamer#takeRandomName() FakeNamer's name getting procedure.
    */
   public void addNumber(int number) {
-    for (int i = 0; i < number; i++) {
-      String name = fakeNamer.getRandomName();
-      add(name);
+    int toAdd = Math.min(number, getFreeSlots());
+    for (int i = 0; i < toAdd; i++) {
+      if (fakeNamer.getFreeNameCount() == 0) {
+        logger.warn("Added only " + i + " of " + number + " fake players, all names from"
+            + " name-list.yml are in use! Add more names to the list.");
+        return;
+      }
+      joinPipeline.enqueue(fakePlayerFactory.create(fakeNamer.takeRandomName()));
     }
   }
 
@@ -90,43 +160,221 @@ public class FakePlayerManager {
    *
    * @param name The name of the fake player you want to send into the oblivion. Say goodbye,
    *             or don't. It's just a fake player after all!
+   * @return a future completed with the fake player once it has been removed and has left
+   *         the server, or with null if there was no fake player with that name.
    * @see FakePlayer#remove()
+   * @see FakePlayer#getRemovalFuture()
    */
-  public void remove(String name) {
-    remove(fakeLister.getRawFakePlayersByName().get(name));
+  public CompletableFuture<FakePlayer> remove(String name) {
+    var cancelled = joinPipeline.cancel(name);
+    if (cancelled != null) {
+      return cancelled.getRemovalFuture();
+    }
+    var fakePlayer = fakeLister.getRawFakePlayer(name);
+    if (fakePlayer == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    remove(fakePlayer);
+    return fakePlayer.getRemovalFuture();
+  }
+
+  /**
+   * Counts fake players which exist or are waiting in the join queue.
+   * It's what the maximum of fake players is compared against.
+   *
+   * @return number of existing and queued fake players.
+   */
+  public int getPendingCount() {
+    return fakeLister.getRawFakePlayerCount() + joinPipeline.getQueueDepth();
+  }
+
+  private int getFreeSlots() {
+    return configYml.getSettings().maxFakePlayers() - getPendingCount();
   }
 
   /**
    * Initiates a methodical purge of all fake players. Think of it as a systematic extermination,
    * but less grim. Starting from the oldest (who probably remember the dial-up era) and moving
    * to the newest, this method wipes them out one by one. It's like a reverse chronology of
-   * annihilation.
+   * annihilation. Fake players waiting in the join queue are dropped first.
    *
    * @see FakePlayer#remove()
    */
   public void removeAll() {
-    var fakePlayers = fakeLister.getRawFakePlayers();
-    while (!fakePlayers.isEmpty()) {
-      fakePlayers.getFirst().remove();
+    removeAll(RemovalReason.REMOVED);
+  }
+
+  /**
+   * Removes all fake players, see {@link #removeAll()}.
+   *
+   * @param reason why the fake players are removed, passed on to their removal events.
+   */
+  public void removeAll(RemovalReason reason) {
+    joinPipeline.clear();
+    fakeLister.getRawFakePlayers().forEach(fakePlayer -> fakePlayer.remove(reason));
+    fakeLister.getGhostFakePlayers().forEach(ghost -> ghost.remove(reason));
+  }
+
+  /**
+   * Removes all fake players when the plugin is being disabled. Unlike {@link #removeAll()},
+   * the registry is cleared in one go, all sessions are disconnected at once so their channels
+   * close in parallel, and ghost fake players leave the tab list with a single packet.
+   * Waits for the sessions to close for at most {@value #SHUTDOWN_TIMEOUT_MILLIS} ms in total
+   * and logs how long the shutdown took.
+   */
+  public void shutdown() {
+    long start = System.nanoTime();
+    joinPipeline.clear();
+    List<FakePlayer> removed = fakeLister.clear();
+    var sessions = new ArrayList<Session>();
+    var ghosts = new ArrayList<FakePlayer>();
+    for (FakePlayer fakePlayer : removed) {
+      if (fakePlayer.isGhost()) {
+        ghosts.add(fakePlayer);
+        continue;
+      }
+      // Clients hosted by the sidecar are disconnected by it once the plugin closes the sidecar
+      var client = fakePlayer.getClient();
+      if (client != null) {
+        sessions.add(client);
+      }
+    }
+    var closed = new CountDownLatch(sessions.size());
+    for (Session session : sessions) {
+      // Listen before checking, so a session closing in between isn't missed, but counted once
+      var counted = new AtomicBoolean();
+      Runnable countDown = () -> {
+        if (counted.compareAndSet(false, true)) {
+          closed.countDown();
+        }
+      };
+      session.addListener(new SessionAdapter() {
+        @Override
+        public void disconnected(DisconnectedEvent event) {
+          countDown.run();
+        }
+      });
+      if (session.isConnected()) {
+        session.disconnect("Server closed");
+      } else {
+        countDown.run();
+      }
     }
+    ghostTabList.hideAll(ghosts);
+    removed.forEach(fakePlayer -> fakePlayer.remove(RemovalReason.SHUTDOWN));
+    // Their players won't get to leave while the plugin is still enabled
+    fakeLister.clearPendingQuits().forEach(FakePlayer::handleQuit);
+
+    boolean allClosed;
+    try {
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      long left = SHUTDOWN_TIMEOUT_MILLIS - elapsed;
+      allClosed = closed.await(Math.max(0, left), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      allClosed = false;
+    }
+    if (!allClosed) {
+      logger.warn(closed.getCount() + " of " + sessions.size() + " fake player sessions didn't"
+          + " close within " + SHUTDOWN_TIMEOUT_MILLIS + " ms, leaving them behind.");
+    }
+    logger.info("Removed " + removed.size() + " fake players in "
+        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+  }
+
+  /**
+   * Adds a ghost fake player, a tab list only phantom. It appears immediately, no queue needed,
+   * as it doesn't even connect.
+   *
+   * @param name The name of the ghost fake player, same rules as for usual ones, an invalid one
+   *             is ignored.
+   * @see FakePlayer#isGhost()
+   * @see FakeNamer#isValidName(String)
+   */
+  public void addGhost(String name) {
+    if (!FakeNamer.isValidName(name) || getFreeGhostSlots() <= 0 || joinPipeline.isQueued(name)
+        || fakeLister.isNameTaken(name)) {
+      return;
+    }
+    fakePlayerFactory.createGhost(name).join();
+  }
+
+  /**
+   * Adds a number of ghost fake players, named by the {@link FakeNamer}.
+   * Stops early if the maximum of ghost fake players is reached or the names ran out.
+   *
+   * @param number How many ghost fake players you want to add.
+   */
+  public void addGhostNumber(int number) {
+    int toAdd = Math.min(number, getFreeGhostSlots());
+    for (int i = 0; i < toAdd; i++) {
+      if (fakeNamer.getFreeNameCount() == 0) {
+        logger.warn("Added only " + i + " of " + number + " ghost fake players, all names from"
+            + " name-list.yml are in use! Add more names to the list.");
+        return;
+      }
+      fakePlayerFactory.createGhost(fakeNamer.takeRandomName()).join();
+    }
+  }
+
+  /**
+   * Removes a ghost fake player by its name, if there is one.
+   *
+   * @param name The name of the ghost fake player.
+   */
+  public void removeGhost(String name) {
+    var ghost = fakeLister.getGhostFakePlayer(name);
+    if (ghost != null) {
+      ghost.remove();
+    }
+  }
+
+  /**
+   * Removes a number of the oldest ghost fake players.
+   *
+   * @param number The number of ghost fake players to remove.
+   */
+  public void removeGhostNumber(int number) {
+    var ghosts = fakeLister.getGhostFakePlayers();
+    int numToRemove = Math.min(number, ghosts.size());
+    for (int i = 0; i < numToRemove; i++) {
+      ghosts.get(i).remove();
+    }
+  }
+
+  /**
+   * Removes all ghost fake players.
+   */
+  public void removeAllGhosts() {
+    fakeLister.getGhostFakePlayers().forEach(FakePlayer::remove);
+  }
+
+  private int getFreeGhostSlots() {
+    return configYml.getSettings().ghostFakePlayers().max()
+        - fakeLister.getGhostFakePlayerCount();
   }
 
   /**
    * Obliterates a specified number of the oldest fake players. It's like a time machine of
-   * destruction, starting from the oldest and moving forward.
+   * destruction, starting from the oldest and moving forward. Fake players waiting in the join
+   * queue are dropped before any, the newest of them first, as they would have joined the last.
    *
    * @param number The number of ancient fake players you want to send to the digital beyond.
    *               Keep it positive, and within the realm of reason.
    * @see FakePlayer#remove()
    */
   public void removeNumber(int number) {
+    if (0 >= number) {
+      return;
+    }
+    int remaining = number - joinPipeline.cancelNewest(number);
     var fakePlayers = fakeLister.getRawFakePlayers();
-    int numToRemove = Math.min(number, fakePlayers.size());
+    int numToRemove = Math.min(remaining, fakePlayers.size());
     if (0 >= numToRemove) {
       return;
     }
     for (int i = 0; i < numToRemove; i++) {
-      fakePlayers.getFirst().remove();
+      fakePlayers.get(i).remove();
     }
   }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.fakeplayers;
+
+import lombok.Getter;
+
+/**
+ * Completes the join future of a fake player removed before it fully joined.
+ *
+ * @see FakePlayer#getJoinFuture()
+ */
+public class FakePlayerRemovedException extends RuntimeException {
+
+  /**
+   * Why the fake player was removed.
+   */
+  @Getter
+  private final RemovalReason reason;
+
+  /**
+   * Creates the exception.
+   *
+   * @param name   name of the removed fake player.
+   * @param reason why the fake player was removed.
+   */
+  public FakePlayerRemovedException(String name, RemovalReason reason) {
+    super("Fake player " + name + " was removed before joining, reason: " + reason);
+    this.reason = reason;
+  }
+}
@@ -18,7 +18,9 @@
 package me.marlester.rfp.fakeplayers;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
 import com.google.inject.assistedinject.FactoryModuleBuilder;
+import com.google.inject.name.Names;
 
 /**
  * Module for installing fake player factory.
@@ -29,6 +31,7 @@ public class FakePlayersModule extends AbstractModule {
   protected void configure() {
     install(new FactoryModuleBuilder()
         .implement(FakePlayer.class, FakePlayerImpl.class)
+        .implement(Key.get(FakePlayer.class, Names.named("ghost")), GhostFakePlayer.class)
         .build(FakePlayerFactory.class));
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.fakeplayers;
+
+import com.github.steveice10.packetlib.Session;
+import com.google.inject.assistedinject.Assisted;
+import com.google.inject.assistedinject.AssistedInject;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.event.FakePlayerJoinedEvent;
+import me.marlester.rfp.event.FakePlayerRemovedEvent;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.faketools.FakeNamer;
+import me.marlester.rfp.ghost.GhostTabList;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * A fake player existing only as a tab list entry and in the server list.
+ * It has no session, no entity and loads no chunks, so it costs next to nothing.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@AssistedInject}, access = AccessLevel.PACKAGE)
+class GhostFakePlayer implements FakePlayer {
+
+  private final FakeLister fakeLister;
+  private final FakeNamer fakeNamer;
+  private final GhostTabList ghostTabList;
+  private final ComponentLogger logger;
+
+  @Getter
+  @Assisted
+  private final String name;
+  @Getter
+  private UUID uuid;
+  @Getter
+  private boolean removed;
+  @Getter
+  private final CompletableFuture<FakePlayer> joinFuture = new CompletableFuture<>();
+  @Getter
+  private final CompletableFuture<FakePlayer> removalFuture = new CompletableFuture<>();
+
+  @Override
+  public Player getPlayer() {
+    return null;
+  }
+
+  @Override
+  public void setPlayer(Player value) {
+    // Ghost fake players never have a Player, nothing to set
+  }
+
+  @Override
+  public UUID getKey() {
+    return null;
+  }
+
+  @Override
+  public Session getClient() {
+    return null;
+  }
+
+  @Override
+  public boolean isGhost() {
+    return true;
+  }
+
+  public void join() {
+    if (removed || uuid != null) {
+      return;
+    }
+    uuid = FakePlayerUuidUtil.createFakePlayerUuid(name);
+    try {
+      // Shown before registering, a ghost that can't be shown must not be left registered
+      ghostTabList.show(this);
+    } catch (RuntimeException e) {
+      logger.error("Couldn't show ghost fake player " + name + " in the tab list!", e);
+      uuid = null;
+      remove(RemovalReason.FAILED);
+      return;
+    }
+    fakeNamer.claimName(name);
+    fakeLister.registerGhost(this);
+    handleJoined();
+  }
+
+  public void remove(RemovalReason reason) {
+    if (removed) {
+      return;
+    }
+    removed = true;
+    if (uuid != null) {
+      fakeLister.unregisterGhost(this);
+      // On shutdown all ghost fake players are hidden at once by the FakePlayerManager
+      if (reason != RemovalReason.SHUTDOWN) {
+        ghostTabList.hide(this);
+      }
+      fakeNamer.releaseName(name);
+    }
+    Bukkit.getPluginManager().callEvent(new FakePlayerRemovedEvent(this, reason));
+    joinFuture.completeExceptionally(new FakePlayerRemovedException(name, reason));
+    removalFuture.complete(this);
+  }
+
+  @Override
+  public void handleJoined() {
+    Bukkit.getPluginManager().callEvent(new FakePlayerJoinedEvent(this));
+    joinFuture.complete(this);
+  }
+
+  @Override
+  public void handleQuit() {
+    // Ghost fake players never are in-game
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.fakeplayers;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.config.RfpSettings;
+import me.marlester.rfp.faketools.FakeNamer;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
+import me.marlester.rfp.metrics.JoinPhase;
+import me.marlester.rfp.timer.TimingWheel;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Queues requested fake player joins and lets them in gradually.
+ * <p>
+ * Joins are admitted by a token bucket refilled at the configured joins per second, and only
+ * while fewer than the configured number of fake players are still logging in. This way adding
+ * hundreds of fake players ramps them in instead of opening all the connections in one tick.
+ * Names of queued fake players are already claimed. Must only be used from the main thread.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class JoinPipeline {
+
+  private final ConfigYml configYml;
+  private final FakeNamer fakeNamer;
+  private final TimingWheel timingWheel;
+  private final LoadGovernor loadGovernor;
+  private final FakePlayerMetrics metrics;
+
+  private final ArrayDeque<QueuedJoin> queue = new ArrayDeque<>();
+  private final Set<String> queuedNames = new HashSet<>();
+  private final List<QueuedJoin> inFlight = new ArrayList<>();
+  private double tokens;
+  private boolean draining;
+
+  /**
+   * Number of fake players which went through the pipeline and joined.
+   */
+  @Getter
+  private long joinedCount;
+  /**
+   * Time from queueing to joining of the last joined fake player, in milliseconds.
+   */
+  @Getter
+  private long lastTimeToJoinMillis;
+  private long totalTimeToJoinMillis;
+
+  /**
+   * Queues a fake player to join. Its name must be already claimed.
+   *
+   * @param fakePlayer the fake player.
+   */
+  void enqueue(FakePlayer fakePlayer) {
+    queue.add(new QueuedJoin(fakePlayer, System.nanoTime()));
+    queuedNames.add(fakePlayer.getName());
+    if (!draining) {
+      // The bucket is full after being idle
+      tokens = burst(configYml.getSettings().joinPipeline());
+      scheduleDrain();
+    }
+  }
+
+  /**
+   * Removes a queued fake player from the queue, its removal releases its name.
+   *
+   * @param name name of the queued fake player.
+   * @return the cancelled fake player, or null if there was no queued one with the name.
+   */
+  public @Nullable FakePlayer cancel(String name) {
+    if (!queuedNames.remove(name)) {
+      return null;
+    }
+    var iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      var fakePlayer = iterator.next().fakePlayer();
+      if (fakePlayer.getName().equals(name)) {
+        iterator.remove();
+        fakePlayer.remove(RemovalReason.CANCELLED);
+        return fakePlayer;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Removes up to a number of the most recently queued fake players from the queue,
+   * their removal releases their names.
+   *
+   * @param number the maximal number of fake players to remove from the queue.
+   * @return the number of removed fake players.
+   */
+  public int cancelNewest(int number) {
+    int cancelled = 0;
+    while (cancelled < number && !queue.isEmpty()) {
+      var fakePlayer = queue.pollLast().fakePlayer();
+      queuedNames.remove(fakePlayer.getName());
+      fakePlayer.remove(RemovalReason.CANCELLED);
+      cancelled++;
+    }
+    return cancelled;
+  }
+
+  /**
+   * Removes all queued fake players from the queue, their removal releases their names.
+   * Fake players already logging in are not affected.
+   */
+  public void clear() {
+    var cancelled = new ArrayList<>(queue);
+    queue.clear();
+    queuedNames.clear();
+    cancelled.forEach(join -> join.fakePlayer().remove(RemovalReason.CANCELLED));
+  }
+
+  /**
+   * Checks whether a fake player with the name is waiting in the queue.
+   *
+   * @param name name of the fake player.
+   * @return true if queued.
+   */
+  public boolean isQueued(String name) {
+    return queuedNames.contains(name);
+  }
+
+  /**
+   * Returns how many fake players are waiting in the queue.
+   *
+   * @return queue depth.
+   */
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Returns how many admitted fake players are still logging in.
+   *
+   * @return number of fake players logging in.
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * Returns the average time from queueing to joining, in milliseconds.
+   *
+   * @return average time to join, 0 if no fake player joined yet.
+   */
+  public long getAverageTimeToJoinMillis() {
+    return joinedCount == 0 ? 0 : totalTimeToJoinMillis / joinedCount;
+  }
+
+  private void scheduleDrain() {
+    draining = true;
+    timingWheel.schedule(null, 1, this::drain);
+  }
+
+  private void drain() {
+    draining = false;
+    var settings = configYml.getSettings().joinPipeline();
+    long now = System.nanoTime();
+    inFlight.removeIf(join -> {
+      var fakePlayer = join.fakePlayer();
+      if (fakePlayer.getPlayer() != null) {
+        lastTimeToJoinMillis = TimeUnit.NANOSECONDS.toMillis(now - join.queuedAt());
+        totalTimeToJoinMillis += lastTimeToJoinMillis;
+        joinedCount++;
+        return true;
+      }
+      return fakePlayer.isRemoved();
+    });
+    tokens = Math.min(burst(settings), tokens + settings.joinsPerSecond() / 20);
+    // Joins wait while the server lags
+    while (!queue.isEmpty() && tokens >= 1 && inFlight.size() < settings.maxInFlight()
+        && loadGovernor.allowsJoins()) {
+      var join = queue.poll();
+      queuedNames.remove(join.fakePlayer().getName());
+      tokens--;
+      metrics.recordJoinPhase(JoinPhase.QUEUE, join.queuedAt());
+      inFlight.add(join);
+      join.fakePlayer().join();
+    }
+    if (!queue.isEmpty() || !inFlight.isEmpty()) {
+      scheduleDrain();
+    }
+  }
+
+  private static double burst(RfpSettings.JoinPipeline settings) {
+    return Math.max(1, settings.joinsPerSecond());
+  }
+
+  private record QueuedJoin(FakePlayer fakePlayer, long queuedAt) {
+  }
+}
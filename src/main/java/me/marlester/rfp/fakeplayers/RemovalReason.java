@@ -15,18 +15,34 @@
  * and limitations under the License.
  */
 
-package me.marlester.rfp.listener.fakeplayerjoinlistener;
-
-import com.google.inject.AbstractModule;
-import com.google.inject.assistedinject.FactoryModuleBuilder;
+package me.marlester.rfp.fakeplayers;
 
 /**
- * Guice module used to set up {@link FakePlayerJoinListenerFactory}.
+ * Why a fake player was removed.
  */
-public class FakePlayerJoinListenerModule extends AbstractModule {
-
-  @Override
-  protected void configure() {
-    install(new FactoryModuleBuilder().build(FakePlayerJoinListenerFactory.class));
-  }
+public enum RemovalReason {
+  /**
+   * Removed on request, e.g. by a command, the auto quit or another plugin.
+   */
+  REMOVED,
+  /**
+   * Left the server on its own, e.g. it was kicked.
+   */
+  QUIT,
+  /**
+   * Removed from the join queue before it started joining.
+   */
+  CANCELLED,
+  /**
+   * Failed to join, e.g. its connection was refused.
+   */
+  FAILED,
+  /**
+   * Didn't join within ~30 seconds.
+   */
+  TIMED_OUT,
+  /**
+   * Removed because the plugin is being disabled.
+   */
+  SHUTDOWN
 }
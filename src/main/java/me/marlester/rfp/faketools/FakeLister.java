@@ -17,99 +17,87 @@
 
 package me.marlester.rfp.faketools;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import me.marlester.rfp.bytecodeedit.SecretClasser;
 import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.util.NameMatcher;
+import org.jetbrains.annotations.Nullable;
 
 /**
- * This class contains all maps, lists, etc. containing info of fakeplayers.
+ * The registry of all fake players.
+ * <br>
+ * <h3>What's the difference between the raw and usual fake player?</h3>
+ * - Usual fake players are fully initialized.
+ * - Raw fake players are not fully initialized,
+ * they lack in-game appearance and some nullable fields are not available in their object.<br>
+ * Raw fake players are also registered IMMEDIATELY on their creation, so every usual fake player
+ * is a raw fake player as well, but not the other way around.
+ * Generally, for all (Craft)Player object related stuff use usual, otherwise think.
+ * <br>
+ * <h3>Ghost fake players</h3>
+ * Ghost fake players have no session and no in-game player, they are kept apart from the raw
+ * and usual ones, so they never show up in their lookups and lists. Their names are unique
+ * among all fake players, see {@link #isNameTaken(String)}.
+ * <br>
+ * <br>
+ * Lookups are lock-free and safe from any thread, e.g. async login events.
+ * Lists returned by this class are immutable snapshots in the join order, they are cached
+ * until the next change of the registry, so iterating them is cheap and never fails
+ * because of a concurrent change.
  */
 @Singleton
-@Getter
 public class FakeLister {
 
   @Inject
   FakeLister(SecretClasser secretClasser) {
     fakePlayerUuidsByKey = secretClasser.getFakePlayerUuidsByKey();
+    discardedDataUuids = secretClasser.getDiscardedDataUuids();
   }
 
-  /**
-   * <h3>What's the difference between the raw and usual fake player?</h3>
-   * - Usual fake players are fully initialized.
-   * - Raw fake players are not fully initialized,
-   * they lack in-game appearance and some nullable fields are not available in their object.<br>
-   * Raw fake players are also added IMMEDIATELY to raw fake player maps on their creation.
-   * Generally, for all (Craft)Player object related stuff use usual, otherwise think.
-   * <br>
-   * <br>
-   * A simple raw fake players list.<br>
-   * ⚠ Fakeplayer (data) is added here immediately on fakeplayer creation,
-   * you likely don't want it. ⚠<br>
-   */
-  private final LinkedList<FakePlayer> rawFakePlayers = new LinkedList<>();
+  private final Object lock = new Object();
 
   /**
-   * <h3>What's the difference between the raw and usual fake player?</h3>
-   * - Usual fake players are fully initialized.
-   * - Raw fake players are not fully initialized,
-   * they lack in-game appearance and some nullable fields are not available in their object.<br>
-   * Raw fake players are also added IMMEDIATELY to raw fake player maps on their creation.
-   * Generally, for all (Craft)Player object related stuff use usual, otherwise think.
-   * <br>
-   * <br>
-   * Key - fakeplayer's name, a string.<br>
-   * Value - fakeplayer's FakePlayer object.<br>
-   * <br>
-   * ⚠ Fakeplayer (data) is added here immediately on fakeplayer creation,
-   * you likely don't want it. ⚠<br>
+   * All registered fake players in the join order, guarded by {@link #lock}.
    */
-  private final Map<String, FakePlayer> rawFakePlayersByName = new HashMap<>();
+  private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>();
 
-  /**
-   * <h3>What's the difference between the raw and usual fake player?</h3>
-   * - Usual fake players are fully initialized.
-   * - Raw fake players are not fully initialized,
-   * they lack in-game appearance and some nullable fields are not available in their object.<br>
-   * Raw fake players are also added IMMEDIATELY to raw fake player maps on their creation.
-   * Generally, for all (Craft)Player object related stuff use usual, otherwise think.
-   * <br>
-   * <br>
-   * Key - fakeplayer's uuid, a UUID object.<br>
-   * Value - fakeplayer's FakePlayer object.<br>
-   * <br>
-   * ⚠ Fakeplayer (data) is added here immediately on fakeplayer creation,
-   * you likely don't want it. ⚠<br>
-   */
-  private final Map<UUID, FakePlayer> rawFakePlayersByUuid = new HashMap<>();
+  private final Map<UUID, Entry> entriesByUuid = new ConcurrentHashMap<>();
+
+  private final Map<String, Entry> entriesByName = new ConcurrentHashMap<>();
+
+  private volatile int fakePlayerCount;
+
+  private volatile List<FakePlayer> rawFakePlayersSnapshot;
+
+  private volatile List<FakePlayer> fakePlayersSnapshot;
 
   /**
-   * A simple fake player list.
-   * <br><br>
-   * Fakeplayer (data) is added here when they are fully initialized, so with delay.<br>
+   * All registered ghost fake players in the join order, guarded by {@link #lock}.
    */
-  private final LinkedList<FakePlayer> fakePlayers = new LinkedList<>();
+  private final LinkedHashMap<String, FakePlayer> ghosts = new LinkedHashMap<>();
+
+  private final Map<String, FakePlayer> ghostsByName = new ConcurrentHashMap<>();
+
+  private volatile List<FakePlayer> ghostsSnapshot;
 
   /**
-   * Key - fakeplayer's name, a string.<br>
-   * Value - fakeplayer's FakePlayer object.<br>
-   * <br>
-   * Fakeplayer (data) is added here when they are fully initialized, so with delay.<br>
+   * Removed fake players whose in-game players haven't left the server yet, by their uuids.
    */
-  private final Map<String, FakePlayer> fakePlayersByName = new HashMap<>();
+  private final Map<UUID, FakePlayer> pendingQuits = new ConcurrentHashMap<>();
 
   /**
-   * Key - fakeplayer's uuid, a UUID object.<br>
-   * Value - fakeplayer's FakePlayer object.<br>
-   * <br>
-   * Fakeplayer (data) is added here when they are fully initialized, so with delay.<br>
+   * Names of all raw and ghost fake players, changed under {@link #lock}.
    */
-  private final Map<UUID, FakePlayer> fakePlayersByUuid = new HashMap<>();
+  private final NameMatcher nameMatcher = new NameMatcher();
 
   /**
    * Key - fakeplayer's key, a UUID object.<br>
@@ -120,24 +108,343 @@ public class FakeLister {
    * ⚠ Fakeplayer (data) is added here immediately on fakeplayer creation,
    * you likely don't want it. ⚠<br>
    */
+  @Getter
   private final Map<UUID, UUID> fakePlayerUuidsByKey;
 
   /**
-   * Removes fakeplayer from all maps, lists, etc.
+   * Uuids of fake players whose player data is never saved.<br>
+   * <br>
+   * ⚠ Managed by the secret class ⚠<br>
+   * ⚠ Uuids are never removed from here, the server saves a player's data after its quit,
+   * long after the fake player got unregistered. There are at most as many as there are names,
+   * a real player's uuid never matches a fake player's one. ⚠<br>
+   */
+  @Getter
+  private final Set<UUID> discardedDataUuids;
+
+  /**
+   * Registers a new raw fake player.
+   * Its name and uuid must already be set.
+   *
+   * @param fakePlayer fakeplayer that needs to be registered.
+   */
+  public void register(FakePlayer fakePlayer) {
+    var entry = new Entry(fakePlayer);
+    synchronized (lock) {
+      entries.put(fakePlayer.getUuid(), entry);
+      entriesByUuid.put(fakePlayer.getUuid(), entry);
+      entriesByName.put(fakePlayer.getName(), entry);
+      nameMatcher.add(fakePlayer.getName());
+      rawFakePlayersSnapshot = null;
+    }
+  }
+
+  /**
+   * Marks a registered fake player as fully initialized, making it a usual fake player.
+   *
+   * @param fakePlayer fakeplayer that has fully joined.
+   */
+  public void markJoined(FakePlayer fakePlayer) {
+    synchronized (lock) {
+      var entry = entries.get(fakePlayer.getUuid());
+      if (entry == null || entry.joined) {
+        return;
+      }
+      entry.joined = true;
+      fakePlayerCount++;
+      fakePlayersSnapshot = null;
+    }
+  }
+
+  /**
+   * Removes fakeplayer from the registry.
    *
    * @param fakePlayer fakeplayer that needs to be removed.
    */
-  public void removeFakePlayerFromAllMaps(FakePlayer fakePlayer) {
-    String name = fakePlayer.getName();
-    var uuid = fakePlayer.getUuid();
+  public void unregister(FakePlayer fakePlayer) {
+    synchronized (lock) {
+      var entry = entries.remove(fakePlayer.getUuid());
+      if (entry != null) {
+        entriesByUuid.remove(fakePlayer.getUuid());
+        entriesByName.remove(fakePlayer.getName());
+        nameMatcher.remove(fakePlayer.getName());
+        rawFakePlayersSnapshot = null;
+        if (entry.joined) {
+          fakePlayerCount--;
+          fakePlayersSnapshot = null;
+        }
+      }
+    }
+    var key = fakePlayer.getKey();
+    if (key != null) {
+      fakePlayerUuidsByKey.remove(key);
+    }
+  }
+
+  /**
+   * Keeps a removed fake player until its in-game player leaves the server,
+   * see {@link #removePendingQuit(UUID)}.
+   *
+   * @param fakePlayer removed fake player whose in-game player is still online.
+   */
+  public void addPendingQuit(FakePlayer fakePlayer) {
+    pendingQuits.put(fakePlayer.getUuid(), fakePlayer);
+  }
+
+  /**
+   * Takes a removed fake player whose in-game player is leaving the server.
+   *
+   * @param uuid uuid of the fake player.
+   * @return the removed fake player, or null if none is waiting for its player to leave.
+   */
+  public @Nullable FakePlayer removePendingQuit(UUID uuid) {
+    return pendingQuits.remove(uuid);
+  }
 
-    rawFakePlayers.remove(fakePlayer);
-    rawFakePlayersByName.remove(name);
-    rawFakePlayersByUuid.remove(uuid);
-    fakePlayers.remove(fakePlayer);
-    fakePlayersByName.remove(name);
-    fakePlayersByUuid.remove(uuid);
-    fakePlayerUuidsByKey.remove(fakePlayer.getKey());
+  /**
+   * Takes all removed fake players whose in-game players haven't left the server yet,
+   * e.g. on shutdown, when they won't get to leave while the plugin is enabled.
+   *
+   * @return the removed fake players.
+   */
+  public List<FakePlayer> clearPendingQuits() {
+    var cleared = ImmutableList.copyOf(pendingQuits.values());
+    cleared.forEach(fakePlayer -> pendingQuits.remove(fakePlayer.getUuid()));
+    return cleared;
+  }
+
+  /**
+   * Removes all fake players, raw and ghost, from the registry in one go, e.g. on shutdown.
+   * The fake players themselves are left untouched, removing them afterwards only skips
+   * the registry.
+   *
+   * @return the removed fake players, raw ones first, oldest first.
+   */
+  public List<FakePlayer> clear() {
+    List<FakePlayer> removed;
+    synchronized (lock) {
+      var builder = ImmutableList.<FakePlayer>builderWithExpectedSize(
+          entries.size() + ghosts.size());
+      entries.values().forEach(entry -> builder.add(entry.fakePlayer));
+      builder.addAll(ghosts.values());
+      removed = builder.build();
+      entries.clear();
+      entriesByUuid.clear();
+      entriesByName.clear();
+      ghosts.clear();
+      ghostsByName.clear();
+      nameMatcher.clear();
+      fakePlayerCount = 0;
+      rawFakePlayersSnapshot = null;
+      fakePlayersSnapshot = null;
+      ghostsSnapshot = null;
+    }
+    for (FakePlayer fakePlayer : removed) {
+      var key = fakePlayer.getKey();
+      if (key != null) {
+        fakePlayerUuidsByKey.remove(key);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Registers a new ghost fake player.
+   * Its name and uuid must already be set.
+   *
+   * @param ghost ghost fake player that needs to be registered.
+   */
+  public void registerGhost(FakePlayer ghost) {
+    synchronized (lock) {
+      ghosts.put(ghost.getName(), ghost);
+      ghostsByName.put(ghost.getName(), ghost);
+      nameMatcher.add(ghost.getName());
+      ghostsSnapshot = null;
+    }
+  }
+
+  /**
+   * Removes a ghost fake player from the registry.
+   *
+   * @param ghost ghost fake player that needs to be removed.
+   */
+  public void unregisterGhost(FakePlayer ghost) {
+    synchronized (lock) {
+      if (ghosts.remove(ghost.getName(), ghost)) {
+        ghostsByName.remove(ghost.getName());
+        nameMatcher.remove(ghost.getName());
+        ghostsSnapshot = null;
+      }
+    }
+  }
+
+  /**
+   * Returns a ghost fake player by its name.
+   *
+   * @param name name of the ghost fake player.
+   * @return the ghost fake player, or null if there is none with that name.
+   */
+  public @Nullable FakePlayer getGhostFakePlayer(String name) {
+    return ghostsByName.get(name);
+  }
+
+  /**
+   * Returns the number of ghost fake players.
+   *
+   * @return number of ghost fake players.
+   */
+  public int getGhostFakePlayerCount() {
+    return ghostsByName.size();
+  }
+
+  /**
+   * Returns an immutable snapshot of all ghost fake players, oldest first.
+   *
+   * @return list of ghost fake players.
+   */
+  public List<FakePlayer> getGhostFakePlayers() {
+    var snapshot = ghostsSnapshot;
+    if (snapshot != null) {
+      return snapshot;
+    }
+    synchronized (lock) {
+      if (ghostsSnapshot == null) {
+        ghostsSnapshot = ImmutableList.copyOf(ghosts.values());
+      }
+      return ghostsSnapshot;
+    }
+  }
+
+  /**
+   * Checks whether any fake player, raw or ghost, has the given name.
+   *
+   * @param name name you want to try.
+   * @return true if the name is taken by a fake player.
+   */
+  public boolean isNameTaken(String name) {
+    return entriesByName.containsKey(name) || ghostsByName.containsKey(name);
+  }
+
+  /**
+   * Checks whether a name of any fake player, raw or ghost, is a word of the text,
+   * ignoring case. The first word, usually the label of a command, is never checked.
+   * Doesn't allocate anything, so it's cheap enough to run on every command.
+   *
+   * @param text text to check, e.g. a command.
+   * @return true if the text mentions a fake player.
+   */
+  public boolean isAnyNameMentioned(String text) {
+    return nameMatcher.matchesAnyWord(text);
+  }
+
+  /**
+   * Returns a raw fake player by its name.
+   *
+   * @param name name of the fake player.
+   * @return the raw fake player, or null if there is none with that name.
+   */
+  public @Nullable FakePlayer getRawFakePlayer(String name) {
+    var entry = entriesByName.get(name);
+    return entry == null ? null : entry.fakePlayer;
+  }
+
+  /**
+   * Returns a raw fake player by its uuid.
+   *
+   * @param uuid uuid of the fake player.
+   * @return the raw fake player, or null if there is none with that uuid.
+   */
+  public @Nullable FakePlayer getRawFakePlayer(UUID uuid) {
+    var entry = entriesByUuid.get(uuid);
+    return entry == null ? null : entry.fakePlayer;
+  }
+
+  /**
+   * Returns a fully initialized fake player by its name.
+   *
+   * @param name name of the fake player.
+   * @return the fake player, or null if there is no fully initialized one with that name.
+   */
+  public @Nullable FakePlayer getFakePlayer(String name) {
+    var entry = entriesByName.get(name);
+    return entry == null || !entry.joined ? null : entry.fakePlayer;
+  }
+
+  /**
+   * Returns a fully initialized fake player by its uuid.
+   *
+   * @param uuid uuid of the fake player.
+   * @return the fake player, or null if there is no fully initialized one with that uuid.
+   */
+  public @Nullable FakePlayer getFakePlayer(UUID uuid) {
+    var entry = entriesByUuid.get(uuid);
+    return entry == null || !entry.joined ? null : entry.fakePlayer;
+  }
+
+  /**
+   * Returns the number of raw fake players.
+   *
+   * @return number of raw fake players.
+   */
+  public int getRawFakePlayerCount() {
+    return entriesByUuid.size();
+  }
+
+  /**
+   * Returns the number of fully initialized fake players.
+   *
+   * @return number of fully initialized fake players.
+   */
+  public int getFakePlayerCount() {
+    return fakePlayerCount;
+  }
+
+  /**
+   * Returns an immutable snapshot of all raw fake players, oldest first.<br>
+   * ⚠ Fakeplayer (data) is added here immediately on fakeplayer creation,
+   * you likely don't want it. ⚠<br>
+   *
+   * @return list of raw fake players.
+   */
+  public List<FakePlayer> getRawFakePlayers() {
+    var snapshot = rawFakePlayersSnapshot;
+    if (snapshot != null) {
+      return snapshot;
+    }
+    synchronized (lock) {
+      if (rawFakePlayersSnapshot == null) {
+        var builder = ImmutableList.<FakePlayer>builderWithExpectedSize(entries.size());
+        entries.values().forEach(entry -> builder.add(entry.fakePlayer));
+        rawFakePlayersSnapshot = builder.build();
+      }
+      return rawFakePlayersSnapshot;
+    }
+  }
+
+  /**
+   * Returns an immutable snapshot of all fully initialized fake players, oldest first.
+   * <br><br>
+   * Fakeplayer (data) is added here when they are fully initialized, so with delay.<br>
+   *
+   * @return list of fully initialized fake players.
+   */
+  public List<FakePlayer> getFakePlayers() {
+    var snapshot = fakePlayersSnapshot;
+    if (snapshot != null) {
+      return snapshot;
+    }
+    synchronized (lock) {
+      if (fakePlayersSnapshot == null) {
+        var builder = ImmutableList.<FakePlayer>builderWithExpectedSize(fakePlayerCount);
+        for (Entry entry : entries.values()) {
+          if (entry.joined) {
+            builder.add(entry.fakePlayer);
+          }
+        }
+        fakePlayersSnapshot = builder.build();
+      }
+      return fakePlayersSnapshot;
+    }
   }
 
   /**
@@ -148,6 +455,20 @@ public class FakeLister {
    * @return true if found online fake player with that name, false if not.
    */
   public boolean isFakePlayer(UUID uuid) {
-    return rawFakePlayersByUuid.containsKey(uuid);
+    return entriesByUuid.containsKey(uuid);
+  }
+
+  private static final class Entry {
+
+    private final FakePlayer fakePlayer;
+    /**
+     * Whether the fake player is fully initialized, written under the registry's lock,
+     * volatile for lock-free reads.
+     */
+    private volatile boolean joined;
+
+    private Entry(FakePlayer fakePlayer) {
+      this.fakePlayer = fakePlayer;
+    }
   }
 }
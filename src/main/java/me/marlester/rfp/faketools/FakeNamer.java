@@ -18,29 +18,39 @@
 package me.marlester.rfp.faketools;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
 import lombok.Getter;
 import me.marlester.rfp.config.NameListYml;
+import me.marlester.rfp.util.RandomPool;
 
 /**
  * A singleton class responsible for generating fake names.
- * This class relies on {@link FakeLister} to ensure uniqueness of names among fake players.
- * It also uses {@link NameListYml} to retrieve and store a list of names.
+ * It uses {@link NameListYml} to retrieve and store a list of names, and keeps a pool of names
+ * that are not used by any fake player, so handing out a unique name is constant time.
+ * Names are claimed on a fake player's join and released on its removal.
  */
 @Singleton
 public class FakeNamer {
 
-  private final FakeLister fakeLister;
+  /**
+   * Minecraft Java profile name requirements, 3 to 16 letters, digits and underscores.
+   */
+  private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_]{3,16}");
+
   @Getter
   private final ImmutableList<String> names;
+  private final ImmutableSet<String> nameSet;
+  private final RandomPool<String> freeNames = new RandomPool<>();
 
   @Inject
-  FakeNamer(FakeLister fakeLister, NameListYml nameListYml) {
-    this.fakeLister = fakeLister;
+  FakeNamer(NameListYml nameListYml) {
     var config = nameListYml.getConfiguration();
     names = ImmutableList.copyOf(config.getStringList("names"));
+    nameSet = ImmutableSet.copyOf(names);
+    nameSet.forEach(freeNames::add);
 
     int maxFakePlayers = config.getInt("max-fake-players");
     if (maxFakePlayers > names.size()) {
@@ -50,17 +60,60 @@ public class FakeNamer {
   }
 
   /**
-   * Retrieves a random, unique name from the list of names.
-   * This method ensures that the returned name is not already used by any existing fake player.
+   * Checks whether a name meets the Minecraft Java profile name requirements,
+   * 3 to 16 letters, digits and underscores.
+   *
+   * @param name the name.
+   * @return true if the name is valid.
+   */
+  public static boolean isValidName(String name) {
+    return VALID_NAME.matcher(name).matches();
+  }
+
+  /**
+   * Takes a random, unique name from the list of names.
+   * The returned name is claimed, so it won't be returned again until it's released.
    *
    * @return a unique random name as a {@link String}.
+   * @throws IllegalStateException if all names are already in use.
    */
-  public String getRandomName() {
-    var rawFakePlayersByName = fakeLister.getRawFakePlayersByName();
-    String name;
-    do {
-      name = names.get(ThreadLocalRandom.current().nextInt(names.size()));
-    } while (rawFakePlayersByName.containsKey(name));
+  public String takeRandomName() {
+    String name = freeNames.pollRandom();
+    if (name == null) {
+      throw new IllegalStateException("All " + nameSet.size()
+          + " names from name-list.yml are already in use!");
+    }
     return name;
   }
+
+  /**
+   * Claims a name, so it won't be handed out by {@link #takeRandomName()}.
+   * Does nothing if the name is not from the list of names or is already claimed.
+   *
+   * @param name the name of a joining fake player.
+   */
+  public void claimName(String name) {
+    freeNames.remove(name);
+  }
+
+  /**
+   * Releases a claimed name, so it can be handed out again.
+   * Does nothing if the name is not from the list of names.
+   *
+   * @param name the name of a removed fake player.
+   */
+  public void releaseName(String name) {
+    if (nameSet.contains(name)) {
+      freeNames.add(name);
+    }
+  }
+
+  /**
+   * Returns how many names are currently not in use.
+   *
+   * @return number of free names.
+   */
+  public int getFreeNameCount() {
+    return freeNames.size();
+  }
 }
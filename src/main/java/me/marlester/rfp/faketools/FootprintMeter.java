@@ -0,0 +1,100 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.faketools;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Player;
+
+/**
+ * Estimates how many chunks fake players hold loaded around them.
+ * <p>
+ * The estimate is the square of chunks within a fake player's view distance, it doesn't look
+ * at the actual chunk tickets, so chunks held by something else are counted too.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class FootprintMeter {
+
+  /**
+   * The minimal view and simulation distance allowed by the server.
+   */
+  public static final int MIN_DISTANCE = 2;
+
+  private final FakeLister fakeLister;
+
+  /**
+   * Counts distinct chunks within the view distance of joined fake players, both with their
+   * current view distances and with their worlds' default ones, for comparison.
+   * Overlapping areas of fake players are counted once.
+   *
+   * @return the estimated footprint.
+   */
+  public Footprint measure() {
+    Map<UUID, LongOpenHashSet> estimatedByWorld = new HashMap<>();
+    Map<UUID, LongOpenHashSet> defaultByWorld = new HashMap<>();
+    var fakePlayers = fakeLister.getFakePlayers();
+    for (var fakePlayer : fakePlayers) {
+      Player player = fakePlayer.getPlayer();
+      var world = player.getWorld();
+      var location = player.getLocation();
+      int chunkX = location.getBlockX() >> 4;
+      int chunkZ = location.getBlockZ() >> 4;
+      addSquare(estimatedByWorld.computeIfAbsent(world.getUID(), k -> new LongOpenHashSet()),
+          chunkX, chunkZ, player.getViewDistance());
+      addSquare(defaultByWorld.computeIfAbsent(world.getUID(), k -> new LongOpenHashSet()),
+          chunkX, chunkZ, world.getViewDistance());
+    }
+    return new Footprint(fakePlayers.size(), count(estimatedByWorld), count(defaultByWorld));
+  }
+
+  private static void addSquare(LongOpenHashSet chunks, int centerX, int centerZ, int radius) {
+    for (int x = centerX - radius; x <= centerX + radius; x++) {
+      for (int z = centerZ - radius; z <= centerZ + radius; z++) {
+        chunks.add(Chunk.getChunkKey(x, z));
+      }
+    }
+  }
+
+  private static int count(Map<UUID, LongOpenHashSet> chunksByWorld) {
+    int count = 0;
+    for (var chunks : chunksByWorld.values()) {
+      count += chunks.size();
+    }
+    return count;
+  }
+
+  /**
+   * Estimated chunks held by fake players.
+   *
+   * @param fakePlayers     number of measured fake players.
+   * @param estimatedChunks chunks within fake players' current view distances.
+   * @param defaultChunks   chunks within the worlds' default view distances, what fake players
+   *                        would hold without low footprint.
+   */
+  public record Footprint(int fakePlayers, int estimatedChunks, int defaultChunks) {
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.ghost;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.netty.buffer.Unpooled;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.faketools.FakeLister;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoRemovePacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerInfoUpdatePacket;
+import net.minecraft.world.level.GameType;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shows ghost fake players in the tab list of real players, by sending them player info packets.
+ * <p>
+ * The packet adding all ghost fake players, sent to every joining player, is built once and
+ * reused until ghost fake players change. Must only be used from the main thread. VDP
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class GhostTabList {
+
+  private static final EnumSet<ClientboundPlayerInfoUpdatePacket.Action> ADD_ACTIONS = EnumSet.of(
+      ClientboundPlayerInfoUpdatePacket.Action.ADD_PLAYER,
+      ClientboundPlayerInfoUpdatePacket.Action.UPDATE_GAME_MODE,
+      ClientboundPlayerInfoUpdatePacket.Action.UPDATE_LISTED,
+      ClientboundPlayerInfoUpdatePacket.Action.UPDATE_LATENCY
+  );
+
+  private final FakeLister fakeLister;
+
+  private @Nullable ClientboundPlayerInfoUpdatePacket addAllPacket;
+
+  /**
+   * Adds a ghost fake player to the tab list of all online players.
+   *
+   * @param ghost the ghost fake player.
+   */
+  public void show(FakePlayer ghost) {
+    // Built first, so a ghost the packet can't be built for doesn't invalidate the cached one
+    var packet = createAddPacket(List.of(ghost));
+    addAllPacket = null;
+    broadcast(packet);
+  }
+
+  /**
+   * Removes a ghost fake player from the tab list of all online players.
+   *
+   * @param ghost the ghost fake player.
+   */
+  public void hide(FakePlayer ghost) {
+    addAllPacket = null;
+    if (Bukkit.isStopping()) {
+      return;
+    }
+    broadcast(new ClientboundPlayerInfoRemovePacket(List.of(ghost.getUuid())));
+  }
+
+  /**
+   * Removes ghost fake players from the tab list of all online players with a single packet.
+   *
+   * @param ghosts the ghost fake players.
+   */
+  public void hideAll(Collection<FakePlayer> ghosts) {
+    addAllPacket = null;
+    if (ghosts.isEmpty() || Bukkit.isStopping()) {
+      return;
+    }
+    broadcast(new ClientboundPlayerInfoRemovePacket(
+        ghosts.stream().map(FakePlayer::getUuid).toList()));
+  }
+
+  /**
+   * Adds all ghost fake players to the tab list of a player.
+   *
+   * @param player the player.
+   */
+  public void showAll(Player player) {
+    var ghosts = fakeLister.getGhostFakePlayers();
+    if (ghosts.isEmpty()) {
+      return;
+    }
+    if (addAllPacket == null) {
+      addAllPacket = createAddPacket(ghosts);
+    }
+    send(player, addAllPacket);
+  }
+
+  private static void broadcast(Packet<?> packet) {
+    for (Player player : Bukkit.getOnlinePlayers()) {
+      send(player, packet);
+    }
+  }
+
+  private static void send(Player player, Packet<?> packet) {
+    ((CraftPlayer) player).getHandle().connection.send(packet);
+  }
+
+  private static ClientboundPlayerInfoUpdatePacket createAddPacket(
+      Collection<FakePlayer> ghosts) {
+    // Entries are written in the order of actions, like the packet reads them
+    var buf = new FriendlyByteBuf(Unpooled.buffer());
+    try {
+      buf.writeEnumSet(ADD_ACTIONS, ClientboundPlayerInfoUpdatePacket.Action.class);
+      buf.writeVarInt(ghosts.size());
+      for (FakePlayer ghost : ghosts) {
+        buf.writeUUID(ghost.getUuid());
+        // ADD_PLAYER, a name and no properties
+        buf.writeUtf(ghost.getName(), 16);
+        buf.writeVarInt(0);
+        // UPDATE_GAME_MODE
+        buf.writeVarInt(GameType.SURVIVAL.getId());
+        // UPDATE_LISTED
+        buf.writeBoolean(true);
+        // UPDATE_LATENCY, stable per ghost fake player, between 20 and 119 ms
+        buf.writeVarInt(20 + Math.floorMod(ghost.getUuid().hashCode(), 100));
+      }
+      return new ClientboundPlayerInfoUpdatePacket(buf);
+    } finally {
+      buf.release();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.joincommands;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.config.RfpSettings;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.minimessage.MessageTemplate;
+import me.marlester.rfp.minimessage.MiniMsgAsst;
+import me.marlester.rfp.timer.TimingWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Dispatches join commands of fake players, spread over ticks.
+ * <p>
+ * Join commands are compiled into templates once per config, so for most commands only the
+ * fake player's name is filled in per join. Commands of all joining fake players share one
+ * queue, at most the configured number of them is dispatched per tick, so a wave of joins
+ * doesn't dispatch hundreds of commands in a single tick. Commands of fake players removed
+ * in the meantime are dropped. Must only be used from the main thread.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class JoinCommandDispatcher {
+
+  private final ConfigYml configYml;
+  private final MiniMsgAsst miniMsgAsst;
+  private final TimingWheel timingWheel;
+
+  private final ArrayDeque<PendingCommands> pending = new ArrayDeque<>();
+  // Size of pending, kept on every change, so metrics can read it from any thread
+  private volatile int pendingCount;
+  private RfpSettings.Commands compiledFrom;
+  private CompiledCommands compiled;
+  private boolean draining;
+
+  /**
+   * Queues the join commands of a joined fake player.
+   *
+   * @param fakePlayer the joined fake player.
+   */
+  public void dispatchJoinCommands(FakePlayer fakePlayer) {
+    var commands = compile(configYml.getSettings().joinCommands());
+    if (commands.size() == 0) {
+      return;
+    }
+    pending.add(new PendingCommands(fakePlayer, commands));
+    pendingCount = pending.size();
+    if (!draining) {
+      draining = true;
+      timingWheel.schedule(null, 1, this::drain);
+    }
+  }
+
+  /**
+   * Returns the number of fake players whose join commands haven't been all dispatched yet.
+   *
+   * @return number of fake players waiting for their join commands.
+   */
+  public int getPendingCount() {
+    return pendingCount;
+  }
+
+  private CompiledCommands compile(RfpSettings.Commands commands) {
+    // A reload compiles new settings, so the identity tells whether they changed
+    if (commands != compiledFrom) {
+      compiled = new CompiledCommands(
+          commands.asConsole().stream().map(miniMsgAsst::getTemplate)
+              .collect(ImmutableList.toImmutableList()),
+          commands.asFakePlayer().stream().map(miniMsgAsst::getTemplate)
+              .collect(ImmutableList.toImmutableList())
+      );
+      compiledFrom = commands;
+    }
+    return compiled;
+  }
+
+  private void drain() {
+    draining = false;
+    int budget = configYml.getSettings().joinCommands().perTick();
+    var consoleSender = Bukkit.getConsoleSender();
+    while (budget > 0 && !pending.isEmpty()) {
+      var entry = pending.peek();
+      var fakePlayer = entry.fakePlayer;
+      if (fakePlayer.isRemoved()) {
+        pending.poll();
+        pendingCount = pending.size();
+        continue;
+      }
+      var player = fakePlayer.getPlayer();
+      var commands = entry.commands;
+      int index = entry.next++;
+      if (index < commands.asConsole().size()) {
+        Bukkit.dispatchCommand(consoleSender, render(commands.asConsole().get(index), player));
+      } else {
+        var template = commands.asFakePlayer().get(index - commands.asConsole().size());
+        player.performCommand(render(template, player));
+      }
+      budget--;
+      if (entry.next == commands.size()) {
+        pending.poll();
+        pendingCount = pending.size();
+      }
+    }
+    if (!pending.isEmpty()) {
+      draining = true;
+      timingWheel.schedule(null, 1, this::drain);
+    }
+  }
+
+  private String render(MessageTemplate template, Player player) {
+    var rendered = template.render(player);
+    return rendered != null
+        ? rendered
+        : miniMsgAsst.deserializeAsPlainText(template.getInput(), player);
+  }
+
+  private record CompiledCommands(ImmutableList<MessageTemplate> asConsole,
+                                  ImmutableList<MessageTemplate> asFakePlayer) {
+
+    private int size() {
+      return asConsole.size() + asFakePlayer.size();
+    }
+  }
+
+  private static final class PendingCommands {
+
+    private final FakePlayer fakePlayer;
+    private final CompiledCommands commands;
+    private int next;
+
+    private PendingCommands(FakePlayer fakePlayer, CompiledCommands commands) {
+      this.fakePlayer = fakePlayer;
+      this.commands = commands;
+    }
+  }
+}
@@ -19,11 +19,10 @@ package me.marlester.rfp.listener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import me.marlester.rfp.command.RfpCommand;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.faketools.FakeLister;
 import me.marlester.rfp.minimessage.MiniMsgAsst;
 import me.marlester.rfp.util.PermUtils;
@@ -41,8 +40,7 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 public class CommandBlockerListener implements Listener {
 
   private final FakeLister fakeLister;
-  @Named("config")
-  private final YamlDocument config;
+  private final ConfigYml configYml;
   private final MiniMsgAsst miniMsgAsst;
 
   /**
@@ -54,25 +52,25 @@ public class CommandBlockerListener implements Listener {
   @EventHandler(priority = EventPriority.HIGHEST)
   public void onPlayerCommand(PlayerCommandPreprocessEvent e) {
     var player = e.getPlayer();
-    if (!config.getBoolean("block-interaction.enable")
+    var blockInteraction = configYml.getSettings().blockInteraction();
+    if (!blockInteraction.enable()
         || PermUtils.hasPermission("interaction", player)) {
       return;
     }
-    String command = e.getMessage().toLowerCase();
-    if (command.startsWith("/rfp") || command.startsWith("/reallyfakeplayers:rfp")) {
+    String command = e.getMessage();
+    if (startsWithIgnoreCase(command, "/rfp")
+        || startsWithIgnoreCase(command, "/reallyfakeplayers:rfp")) {
       return;
     }
-    for (String fakePlayerName : fakeLister.getRawFakePlayersByName().keySet()) {
-      fakePlayerName = fakePlayerName.toLowerCase();
-      if (command.contains(" " + fakePlayerName + " ")
-          || command.endsWith(" " + fakePlayerName)) {
-        e.setCancelled(true);
-        Component blockMessage = miniMsgAsst.deserialize(
-            config.getString("block-interaction.message"),
-            player
-        );
-        player.sendMessage(blockMessage);
-      }
+    // Ghost fake players can't be messaged either, so they are protected as well
+    if (fakeLister.isAnyNameMentioned(command)) {
+      e.setCancelled(true);
+      Component blockMessage = miniMsgAsst.deserialize(blockInteraction.message(), player);
+      player.sendMessage(blockMessage);
     }
   }
+
+  private static boolean startsWithIgnoreCase(String string, String prefix) {
+    return string.regionMatches(true, 0, prefix, 0, prefix.length());
+  }
 }
@@ -19,51 +19,67 @@ package me.marlester.rfp.listener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
-import me.marlester.rfp.ReallyFakePlayers;
 import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.visibility.FakePlayerVisibility;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
- * Handles visibility of fake players during player join events.
- * It ensures that real players, upon joining the server, do not see fake players if the config
- * is set to hide them. This listener checks the configuration and acts accordingly, maintaining
- * the intended visibility of fake players.
+ * Handles visibility of fake players during player join, quit and world change events.
+ * Hidden fake players are invisible by default, so a joining real player doesn't see them
+ * without this listener doing anything, it only shows them to players allowed to see them
+ * and reapplies the hide rules when a fake player changes its world.
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class FakePlayerHideListener implements Listener {
 
-  private final ReallyFakePlayers pl;
   private final FakeLister fakeLister;
-  @Named("config")
-  private final YamlDocument config;
+  private final FakePlayerVisibility fakePlayerVisibility;
 
   /**
    * Handles the {@link PlayerJoinEvent}.
-   * When a player joins, this method checks the configuration. If hiding fake players is enabled,
-   * it hides all fake players from the newly joined real player, unless the joining player is a
-   * fake player.
+   * Shows hidden fake players to the joining real player if it's allowed to see them.
    *
    * @param e the {@link PlayerJoinEvent} event that is occurring.
    */
   @EventHandler(priority = EventPriority.LOWEST)
   public void onJoin(PlayerJoinEvent e) {
-    if (!config.getBoolean("hide")) {
+    var player = e.getPlayer();
+    if (fakeLister.isFakePlayer(player.getUniqueId())) {
       return;
     }
+    fakePlayerVisibility.addViewer(player);
+  }
+
+  /**
+   * Handles the {@link PlayerQuitEvent}.
+   *
+   * @param e the {@link PlayerQuitEvent} event that is occurring.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onQuit(PlayerQuitEvent e) {
+    fakePlayerVisibility.removeViewer(e.getPlayer());
+  }
+
+  /**
+   * Handles the {@link PlayerChangedWorldEvent}.
+   * Reapplies the hide rules to a fake player, as they may differ between worlds.
+   *
+   * @param e the {@link PlayerChangedWorldEvent} event that is occurring.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onChangedWorld(PlayerChangedWorldEvent e) {
     var player = e.getPlayer();
-    if (fakeLister.isFakePlayer(player.getUniqueId())) {
+    if (fakeLister.getFakePlayer(player.getUniqueId()) == null) {
       return;
     }
-    fakeLister.getFakePlayers().forEach(fakePlayer -> {
-      player.hidePlayer(pl, fakePlayer.getPlayer());
-    });
+    fakePlayerVisibility.applyToFakePlayer(player);
   }
 }
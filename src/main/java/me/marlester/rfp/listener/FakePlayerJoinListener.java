@@ -0,0 +1,120 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.listener;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.chatting.Chatting;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.faketools.FootprintMeter;
+import me.marlester.rfp.joincommands.JoinCommandDispatcher;
+import me.marlester.rfp.timer.TimingWheel;
+import me.marlester.rfp.vault.VaultIntegration;
+import me.marlester.rfp.visibility.FakePlayerVisibility;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+
+/**
+ * Handles the joining process of fake players into the game.
+ * This class is responsible for setting up fake players when they join the game, including hiding
+ * them from real players, applying various effects and configurations, and handling their
+ * interactions with the game world. A single instance of it serves all fake players, pending
+ * fake players are looked up by their UUID, so the cost of a join doesn't depend on how many
+ * fake players are currently joining.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class FakePlayerJoinListener implements Listener {
+
+  private final FakeLister fakeLister;
+  private final Chatting chatting;
+  private final ConfigYml configYml;
+  private final VaultIntegration vaultIntegration;
+  private final JoinCommandDispatcher joinCommandDispatcher;
+  private final TimingWheel timingWheel;
+  private final FakePlayerVisibility fakePlayerVisibility;
+
+  /**
+   * Manages actions upon a fake player's join event.
+   * Finds the pending fake player with the joining player's UUID, if there is one, and sets it up
+   * by applying necessary configurations and effects.
+   *
+   * @param e the player join event.
+   */
+  @EventHandler
+  public void onJoin(PlayerJoinEvent e) {
+    var player = e.getPlayer();
+    var fakePlayer = fakeLister.getRawFakePlayer(player.getUniqueId());
+    // Not a fake player or already set up
+    if (fakePlayer == null || fakePlayer.getPlayer() != null) {
+      return;
+    }
+    fakePlayer.setPlayer(player);
+    handleJoin(fakePlayer);
+  }
+
+  private void handleJoin(FakePlayer fakePlayer) {
+    fakeLister.markJoined(fakePlayer);
+
+    var player = fakePlayer.getPlayer();
+    var settings = configYml.getSettings();
+    fakePlayerVisibility.applyToFakePlayer(player);
+    if (settings.invisibilityEffect()) {
+      player.addPotionEffect(
+          new PotionEffect(
+              PotionEffectType.INVISIBILITY,
+              PotionEffect.INFINITE_DURATION,
+              1,
+              false,
+              false
+          )
+      );
+    }
+    if (settings.invulnerable()) {
+      player.setInvulnerable(true);
+    }
+    if (settings.noCollision()) {
+      player.setCollidable(false);
+    }
+    if (settings.noGravity()) {
+      player.setGravity(false);
+    }
+    if (settings.lowFootprint()) {
+      // VDP, Paper's per-player distances
+      player.setViewDistance(FootprintMeter.MIN_DISTANCE);
+      player.setSimulationDistance(FootprintMeter.MIN_DISTANCE);
+      player.setSendViewDistance(FootprintMeter.MIN_DISTANCE);
+    }
+    vaultIntegration.giveGroup(player);
+    vaultIntegration.givePermissions(player);
+    joinCommandDispatcher.dispatchJoinCommands(fakePlayer);
+    chatting.startChatting(fakePlayer);
+    if (settings.autoQuit().enable() && !settings.populationControl().enable()) {
+      int delay = 20 * settings.autoQuit().delay().random();
+      timingWheel.schedule(fakePlayer, delay, fakePlayer::remove);
+    }
+    fakePlayer.handleJoined();
+  }
+}
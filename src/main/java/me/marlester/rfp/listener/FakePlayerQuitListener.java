@@ -42,17 +42,22 @@ public class FakePlayerQuitListener implements Listener {
   /**
    * Handles the {@link PlayerQuitEvent}.
    * When a player quits, this method checks if the player is a fake player. If so, it proceeds
-   * to remove the fake player, performing necessary cleanup operations.
+   * to remove the fake player, performing necessary cleanup operations. A fake player removed
+   * by the plugin before is looked up first, so its removal completes once its player has left.
    *
    * @param e the player quit event.
    */
   @EventHandler(priority = EventPriority.LOW)
   public void onQuit(PlayerQuitEvent e) {
     var uuid = e.getPlayer().getUniqueId();
-    var fakePlayer = fakeLister.getRawFakePlayersByUuid().get(uuid);
+    // A fake player with the same name might have been added since, the removed one goes first
+    var fakePlayer = fakeLister.removePendingQuit(uuid);
+    if (fakePlayer == null) {
+      fakePlayer = fakeLister.getRawFakePlayer(uuid);
+    }
     if (fakePlayer == null) {
       return;
     }
-    fakePlayer.remove();
+    fakePlayer.handleQuit();
   }
 }
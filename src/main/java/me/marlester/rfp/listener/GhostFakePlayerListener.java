@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.listener;
+
+import com.destroystokyo.paper.event.server.PaperServerListPingEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.ghost.GhostTabList;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+/**
+ * Makes ghost fake players appear, in the tab list of joining players and in the server list.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class GhostFakePlayerListener implements Listener {
+
+  // The vanilla server list shows at most this many players
+  private static final int MAX_SAMPLE_SIZE = 12;
+
+  private final FakeLister fakeLister;
+  private final GhostTabList ghostTabList;
+  private final ConfigYml configYml;
+
+  /**
+   * Shows all ghost fake players to a joining real player.
+   *
+   * @param e the PlayerJoinEvent.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onJoin(PlayerJoinEvent e) {
+    var player = e.getPlayer();
+    if (fakeLister.isFakePlayer(player.getUniqueId())) {
+      return;
+    }
+    ghostTabList.showAll(player);
+  }
+
+  /**
+   * Adds ghost fake players to the player count and sample of the server list, if configured so.
+   *
+   * @param e the PaperServerListPingEvent.
+   */
+  @EventHandler(priority = EventPriority.HIGH)
+  public void onServerListPing(PaperServerListPingEvent e) {
+    if (!configYml.getSettings().ghostFakePlayers().serverList()) {
+      return;
+    }
+    var ghosts = fakeLister.getGhostFakePlayers();
+    if (ghosts.isEmpty()) {
+      return;
+    }
+    e.setNumPlayers(e.getNumPlayers() + ghosts.size());
+    var sample = e.getPlayerSample();
+    int toAdd = Math.min(MAX_SAMPLE_SIZE - sample.size(), ghosts.size());
+    if (toAdd <= 0) {
+      return;
+    }
+    // A random window keeps the sample varied without shuffling the whole list
+    int start = ThreadLocalRandom.current().nextInt(ghosts.size());
+    for (int i = 0; i < toAdd; i++) {
+      var ghost = ghosts.get((start + i) % ghosts.size());
+      sample.add(Bukkit.createProfile(ghost.getUuid(), ghost.getName()));
+    }
+  }
+}
@@ -43,6 +43,9 @@ public class ListenersRegistrar {
   private final SpawnLocationListener spawnLocationListener;
   private final FakePlayerHideListener fakePlayerHideListener;
   private final UpdateCheckListener updateCheckListener;
+  private final FakePlayerJoinListener fakePlayerJoinListener;
+  private final GhostFakePlayerListener ghostFakePlayerListener;
+  private final LoadSamplingListener loadSamplingListener;
 
   /**
    * Registers all listeners with the Bukkit plugin manager.
@@ -58,5 +61,8 @@ public class ListenersRegistrar {
     pluginManager.registerEvents(fakePlayerHideListener, pl);
     pluginManager.registerEvents(welcomeListener, pl);
     pluginManager.registerEvents(updateCheckListener, pl);
+    pluginManager.registerEvents(fakePlayerJoinListener, pl);
+    pluginManager.registerEvents(ghostFakePlayerListener, pl);
+    pluginManager.registerEvents(loadSamplingListener, pl);
   }
 }
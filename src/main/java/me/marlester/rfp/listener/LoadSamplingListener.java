@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.listener;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.load.LoadGovernor;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Feeds the {@link LoadGovernor} with durations of the server's ticks.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class LoadSamplingListener implements Listener {
+
+  private final LoadGovernor loadGovernor;
+
+  /**
+   * Listens to ServerTickEndEvent and samples the tick's duration.
+   *
+   * @param e the ServerTickEndEvent.
+   */
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onTickEnd(ServerTickEndEvent e) {
+    loadGovernor.sample(e.getTickDuration());
+  }
+}
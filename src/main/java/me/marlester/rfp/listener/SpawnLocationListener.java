@@ -19,12 +19,11 @@ package me.marlester.rfp.listener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.faketools.FakeLister;
-import org.bukkit.Location;
+import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -32,14 +31,14 @@ import org.spigotmc.event.player.PlayerSpawnLocationEvent;
 
 /**
  * Sets spawn location from config for fake players.
+ * With low footprint and no spawn location set, fake players spawn at the main world's spawn.
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class SpawnLocationListener implements Listener {
 
   private final FakeLister fakeLister;
-  @Named("config")
-  private final YamlDocument config;
+  private final ConfigYml configYml;
 
   /**
    * Listens to PlayerSpawnLocationEvent, if a fake player then change spawn
@@ -53,9 +52,13 @@ public class SpawnLocationListener implements Listener {
       return;
     }
 
-    var configSpawnLocation = config.getAsOptional("spawn-location", Location.class);
-    if (configSpawnLocation.isPresent()) {
-      e.setSpawnLocation(configSpawnLocation.get());
+    var settings = configYml.getSettings();
+    var configSpawnLocation = settings.spawnLocation();
+    if (configSpawnLocation != null) {
+      e.setSpawnLocation(configSpawnLocation.clone());
+    } else if (settings.lowFootprint()) {
+      // Co-located fake players share their chunks
+      e.setSpawnLocation(Bukkit.getWorlds().get(0).getSpawnLocation());
     }
   }
 }
@@ -19,10 +19,9 @@ package me.marlester.rfp.listener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.update.UpdateChecker;
 import me.marlester.rfp.util.PermUtils;
 import org.bukkit.event.EventHandler;
@@ -37,18 +36,18 @@ import org.bukkit.event.player.PlayerJoinEvent;
 public class UpdateCheckListener implements Listener {
 
   private final UpdateChecker updateChecker;
-  @Named("config")
-  private final YamlDocument config;
+  private final ConfigYml configYml;
 
   /**
    * Listens to PlayerJoinEvent, if the feature is enabled it checks if the player
    * is an admin and notifies the admin about any updates if so.
+   * The verdict is usually cached, so this doesn't wait for the api.
    *
    * @param e the PlayerJoinEvent.
    */
   @EventHandler
   public void onJoin(PlayerJoinEvent e) {
-    if (!config.getBoolean("update-check.notify-staff")) {
+    if (!configYml.getSettings().updateCheck().notifyStaff()) {
       return;
     }
     var player = e.getPlayer();
@@ -19,39 +19,56 @@ package me.marlester.rfp.listener;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
-import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
 import me.marlester.rfp.fakeplayers.FakePlayer;
 import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
 import me.marlester.rfp.minimessage.MiniMsgAsst;
-import org.bukkit.Bukkit;
+import me.marlester.rfp.timer.ExpiringSet;
+import me.marlester.rfp.timer.TimingWheel;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Class used for forcing fakeplayers to welcome incoming players.
+ * Cooldowns of welcomed players and welcomers expire on their own, and a welcomer is picked
+ * without copying the list of fake players, so a join flood stays cheap however many fake
+ * players there are.
  */
-@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class WelcomeListener implements Listener {
 
-  @Named("config")
-  private final YamlDocument config;
+  private static final int RANDOM_PICKS = 8;
+
+  private final ConfigYml configYml;
   private final FakeLister fakeLister;
-  private final ReallyFakePlayers pl;
+  private final TimingWheel timingWheel;
+  private final LoadGovernor loadGovernor;
   private final MiniMsgAsst miniMsgAsst;
+  private final FakePlayerMetrics metrics;
+
+  private final ExpiringSet<String> welcomed;
+  private final ExpiringSet<FakePlayer> welcomers;
 
-  private final List<String> welcomed = new ArrayList<>();
-  private final List<FakePlayer> welcomers = new ArrayList<>();
+  @Inject
+  WelcomeListener(ConfigYml configYml, FakeLister fakeLister, TimingWheel timingWheel,
+                  LoadGovernor loadGovernor, MiniMsgAsst miniMsgAsst,
+                  FakePlayerMetrics metrics) {
+    this.configYml = configYml;
+    this.fakeLister = fakeLister;
+    this.timingWheel = timingWheel;
+    this.loadGovernor = loadGovernor;
+    this.miniMsgAsst = miniMsgAsst;
+    this.metrics = metrics;
+    welcomed = new ExpiringSet<>(timingWheel);
+    welcomers = new ExpiringSet<>(timingWheel);
+  }
 
   /**
    * Listens to PlayerJoinEvent and gets some random fake player to welcome them
@@ -61,68 +78,78 @@ public class WelcomeListener implements Listener {
    */
   @EventHandler(priority = EventPriority.LOWEST)
   public void welcomeOnJoin(PlayerJoinEvent e) {
-    if (!config.getBoolean("welcome.enable")) {
+    var welcome = configYml.getSettings().welcome();
+    if (!welcome.enable() || !loadGovernor.allowsChatter()) {
       return;
     }
-    var fakePlayers = fakeLister.getFakePlayers();
-    if (fakePlayers.isEmpty()) {
+    if (fakeLister.getFakePlayerCount() == 0) {
       return;
     }
-    if (welcomers.size() >= config.getInt("welcome.max-welcomers")) {
+    if (welcomers.size() >= welcome.maxWelcomers()) {
       return;
     }
     var player = e.getPlayer();
     var name = player.getName();
-    if (welcomed.contains(name)) {
+    if (!welcomed.add(name, 20L * welcome.frequency())) {
       return;
-    } else {
-      welcomed.add(name);
-      new BukkitRunnable() {
-        @Override
-        public void run() {
-          welcomed.remove(name);
-        }
-      }.runTaskLater(pl, 20L * config.getInt("welcome.frequency"));
     }
-    if (ThreadLocalRandom.current().nextInt(100) > config.getInt("welcome.chance")) {
+    if (ThreadLocalRandom.current().nextInt(100) > welcome.chance()) {
       return;
     }
-    int delay = 20 * ThreadLocalRandom.current().nextInt(
-        config.getInt("welcome.delay.min"),
-        config.getInt("welcome.delay.max") + 1
-    );
-    var scheduler = Bukkit.getScheduler();
-    scheduler.runTaskLater(pl, () -> {
+    int delay = 20 * welcome.delay().random();
+    timingWheel.schedule(null, delay, () -> {
       // Better safe than sorry
       if (!player.isOnline()) {
         return;
       }
       // Double check is important here, we want before/after
+      var fakePlayers = fakeLister.getFakePlayers();
       if (fakePlayers.isEmpty()) {
         return;
       }
-      var upForGrabsFakePlayers = new ArrayList<>(fakePlayers);
-      var possibleSelfFakePlayer = fakeLister.getFakePlayersByName().get(player.getName());
-      if (possibleSelfFakePlayer != null) {
-        upForGrabsFakePlayers.remove(possibleSelfFakePlayer);
-      }
-      upForGrabsFakePlayers.removeAll(welcomers);
-      if (upForGrabsFakePlayers.isEmpty()) {
+      var fakePlayer = pickWelcomer(fakePlayers, fakeLister.getFakePlayer(player.getName()));
+      if (fakePlayer == null) {
         return;
       }
-      var fakePlayer = upForGrabsFakePlayers.get(ThreadLocalRandom.current()
-          .nextInt(upForGrabsFakePlayers.size()));
       var fakePlayerBukkit = fakePlayer.getPlayer();
+      var settings = configYml.getSettings().welcome();
       var messages = player.hasPlayedBefore()
-          ? config.getStringList("welcome.rejoin-messages")
-          : config.getStringList("welcome.first-join-messages");
+          ? settings.rejoinMessages()
+          : settings.firstJoinMessages();
       var message = messages.get(ThreadLocalRandom.current().nextInt(messages.size()));
       message = miniMsgAsst.deserializeAsPlainText(message, fakePlayerBukkit, player);
       fakePlayerBukkit.chat(message);
-      welcomers.add(fakePlayer);
-      scheduler.runTaskLater(pl, () -> {
-        welcomers.remove(fakePlayer);
-      }, 20L * config.getInt("welcome.period"));
-    }, delay);
+      metrics.countWelcomeMessage();
+      welcomers.add(fakePlayer, 20L * settings.period());
+    });
+  }
+
+  /**
+   * Picks a random fake player that isn't welcoming anyone at the moment, every eligible one
+   * is equally likely. A few random picks usually hit an eligible one right away, when they
+   * don't, e.g. when most fake players are welcoming, one reservoir sampling pass decides.
+   */
+  private @Nullable FakePlayer pickWelcomer(List<FakePlayer> fakePlayers,
+                                            @Nullable FakePlayer self) {
+    var random = ThreadLocalRandom.current();
+    int size = fakePlayers.size();
+    for (int i = 0; i < RANDOM_PICKS; i++) {
+      var fakePlayer = fakePlayers.get(random.nextInt(size));
+      if (isWelcomer(fakePlayer, self)) {
+        return fakePlayer;
+      }
+    }
+    FakePlayer picked = null;
+    int eligible = 0;
+    for (var fakePlayer : fakePlayers) {
+      if (isWelcomer(fakePlayer, self) && random.nextInt(++eligible) == 0) {
+        picked = fakePlayer;
+      }
+    }
+    return picked;
+  }
+
+  private boolean isWelcomer(FakePlayer fakePlayer, @Nullable FakePlayer self) {
+    return fakePlayer != self && !welcomers.contains(fakePlayer);
   }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.load;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.config.ConfigYml;
+
+/**
+ * Throttles fake players' activity when the server is under load.
+ * <p>
+ * Tick durations are smoothed into an exponential moving average, the state goes up as soon as
+ * the average crosses a threshold, and goes down only once it drops below the threshold by the
+ * recovery margin, so it doesn't flap around a threshold. Activities ask the governor whether
+ * they are allowed, with the governor disabled everything always is.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class LoadGovernor {
+
+  // Weight of a new sample, roughly the average of the last 20 ticks (a second)
+  private static final double ALPHA = 0.1;
+
+  private final ConfigYml configYml;
+
+  /**
+   * Average milliseconds per tick.
+   */
+  @Getter
+  private volatile double mspt;
+  /**
+   * The current state, NORMAL if the governor is disabled.
+   */
+  @Getter
+  private volatile LoadState state = LoadState.NORMAL;
+
+  /**
+   * Takes a sample of a finished tick and updates the state. Call once per tick.
+   *
+   * @param tickMillis how long the tick took, in milliseconds.
+   */
+  public void sample(double tickMillis) {
+    double average = mspt == 0 ? tickMillis : mspt + ALPHA * (tickMillis - mspt);
+    mspt = average;
+    var settings = configYml.getSettings().loadGovernor();
+    if (!settings.enable()) {
+      state = LoadState.NORMAL;
+      return;
+    }
+    double margin = settings.recoveryMargin();
+    state = switch (state) {
+      case NORMAL -> average >= settings.criticalMspt() ? LoadState.CRITICAL
+          : average >= settings.elevatedMspt() ? LoadState.ELEVATED : LoadState.NORMAL;
+      case ELEVATED -> average >= settings.criticalMspt() ? LoadState.CRITICAL
+          : average < settings.elevatedMspt() - margin ? LoadState.NORMAL : LoadState.ELEVATED;
+      case CRITICAL -> average >= settings.criticalMspt() - margin ? LoadState.CRITICAL
+          : average < settings.elevatedMspt() - margin ? LoadState.NORMAL : LoadState.ELEVATED;
+    };
+  }
+
+  /**
+   * Whether fake players may chat and welcome.
+   *
+   * @return true if allowed.
+   */
+  public boolean allowsChatter() {
+    return state == LoadState.NORMAL;
+  }
+
+  /**
+   * Whether new fake players may be added automatically.
+   *
+   * @return true if allowed.
+   */
+  public boolean allowsGrowth() {
+    return state == LoadState.NORMAL;
+  }
+
+  /**
+   * Whether queued fake players may start logging in.
+   *
+   * @return true if allowed.
+   */
+  public boolean allowsJoins() {
+    return state != LoadState.CRITICAL;
+  }
+}
@@ -15,13 +15,22 @@
  * and limitations under the License.
  */
 
-package me.marlester.rfp.listener.fakeplayerjoinlistener;
-
-import me.marlester.rfp.fakeplayers.FakePlayer;
+package me.marlester.rfp.load;
 
 /**
- * Factory interface for creating instances of {@link FakePlayerJoinListener}.
+ * State of the server's load, as seen by the {@link LoadGovernor}.
  */
-public interface FakePlayerJoinListenerFactory {
-  FakePlayerJoinListener create(FakePlayer fakePlayer);
+public enum LoadState {
+  /**
+   * The server keeps up, fake players do everything.
+   */
+  NORMAL,
+  /**
+   * Ticks are getting long, fake players stop chatting and welcoming and no new ones are added.
+   */
+  ELEVATED,
+  /**
+   * The server lags, additionally queued fake players don't start logging in.
+   */
+  CRITICAL
 }
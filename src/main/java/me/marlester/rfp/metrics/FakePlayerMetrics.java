@@ -0,0 +1,199 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.metrics;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import me.marlester.rfp.fakeplayers.RemovalReason;
+
+/**
+ * Records how fake players perform: latencies of join phases and counters of joins, removals,
+ * disconnect errors, chatting and packets skipped by light clients. Recording is lock-free and
+ * safe from any thread, e.g. from the network threads of fake players' clients.
+ *
+ * @see MetricsExporter
+ */
+@Singleton
+public class FakePlayerMetrics {
+
+  private final EnumMap<JoinPhase, LatencyHistogram> joinPhases = new EnumMap<>(JoinPhase.class);
+  private final EnumMap<RemovalReason, LongAdder> removals = new EnumMap<>(RemovalReason.class);
+  private final LongAdder joins = new LongAdder();
+  private final LongAdder disconnectErrors = new LongAdder();
+  private final LongAdder chatMessages = new LongAdder();
+  private final LongAdder welcomeMessages = new LongAdder();
+  private final LongAdder skippedPackets = new LongAdder();
+  private final LongAdder skippedBytes = new LongAdder();
+
+  @Inject
+  FakePlayerMetrics() {
+    for (JoinPhase phase : JoinPhase.values()) {
+      joinPhases.put(phase, new LatencyHistogram());
+    }
+    for (RemovalReason reason : RemovalReason.values()) {
+      removals.put(reason, new LongAdder());
+    }
+  }
+
+  /**
+   * Records how long a join phase took.
+   *
+   * @param phase      the join phase.
+   * @param startNanos {@link System#nanoTime()} when the phase started.
+   */
+  public void recordJoinPhase(JoinPhase phase, long startNanos) {
+    joinPhases.get(phase).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+  }
+
+  /**
+   * Counts a fully joined fake player.
+   */
+  public void countJoin() {
+    joins.increment();
+  }
+
+  /**
+   * Counts a removed fake player.
+   *
+   * @param reason why the fake player was removed.
+   */
+  public void countRemoval(RemovalReason reason) {
+    removals.get(reason).increment();
+  }
+
+  /**
+   * Counts a fake player's client disconnected with an error.
+   */
+  public void countDisconnectError() {
+    disconnectErrors.increment();
+  }
+
+  /**
+   * Counts a chat message sent by a chatting fake player.
+   */
+  public void countChatMessage() {
+    chatMessages.increment();
+  }
+
+  /**
+   * Counts a welcome message sent by a fake player.
+   */
+  public void countWelcomeMessage() {
+    welcomeMessages.increment();
+  }
+
+  /**
+   * Counts a packet skipped by a light client without being decoded.
+   *
+   * @param bytes size of the skipped packet.
+   */
+  public void countSkippedPacket(int bytes) {
+    skippedPackets.increment();
+    skippedBytes.add(bytes);
+  }
+
+  /**
+   * Returns the latency histogram of a join phase.
+   *
+   * @param phase the join phase.
+   * @return the histogram.
+   */
+  public LatencyHistogram getJoinPhase(JoinPhase phase) {
+    return joinPhases.get(phase);
+  }
+
+  /**
+   * Returns the number of fully joined fake players since the start.
+   *
+   * @return number of joins.
+   */
+  public long getJoinCount() {
+    return joins.sum();
+  }
+
+  /**
+   * Returns the number of fake players removed for a reason since the start.
+   *
+   * @param reason the removal reason.
+   * @return number of removals.
+   */
+  public long getRemovalCount(RemovalReason reason) {
+    return removals.get(reason).sum();
+  }
+
+  /**
+   * Returns the number of fake players removed for any reason since the start.
+   *
+   * @return number of removals.
+   */
+  public long getRemovalCount() {
+    long total = 0;
+    for (LongAdder adder : removals.values()) {
+      total += adder.sum();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of fake players' clients disconnected with an error since the start.
+   *
+   * @return number of disconnect errors.
+   */
+  public long getDisconnectErrorCount() {
+    return disconnectErrors.sum();
+  }
+
+  /**
+   * Returns the number of chat messages sent by chatting fake players since the start.
+   *
+   * @return number of chat messages.
+   */
+  public long getChatMessageCount() {
+    return chatMessages.sum();
+  }
+
+  /**
+   * Returns the number of welcome messages sent by fake players since the start.
+   *
+   * @return number of welcome messages.
+   */
+  public long getWelcomeMessageCount() {
+    return welcomeMessages.sum();
+  }
+
+  /**
+   * Returns the number of packets skipped by light clients since the start.
+   *
+   * @return number of skipped packets.
+   */
+  public long getSkippedPacketCount() {
+    return skippedPackets.sum();
+  }
+
+  /**
+   * Returns the number of bytes of packets skipped by light clients since the start.
+   *
+   * @return number of skipped bytes.
+   */
+  public long getSkippedByteCount() {
+    return skippedBytes.sum();
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.metrics;
+
+/**
+ * Metrics of fake players over JMX, registered as
+ * {@value MetricsExporter#OBJECT_NAME}.
+ */
+public interface FakePlayerMetricsMXBean {
+
+  /**
+   * Returns the number of fully joined fake players since the start.
+   *
+   * @return number of joins.
+   */
+  long getJoinCount();
+
+  /**
+   * Returns the number of fake players removed for any reason since the start.
+   *
+   * @return number of removals.
+   */
+  long getRemovalCount();
+
+  /**
+   * Returns the number of fake players aborted by the liveness check since the start.
+   *
+   * @return number of timed out joins.
+   */
+  long getTimedOutJoinCount();
+
+  /**
+   * Returns the number of fake players which failed to join since the start.
+   *
+   * @return number of failed joins.
+   */
+  long getFailedJoinCount();
+
+  /**
+   * Returns the number of fake players' clients disconnected with an error since the start.
+   *
+   * @return number of disconnect errors.
+   */
+  long getDisconnectErrorCount();
+
+  /**
+   * Returns the number of chat messages sent by chatting fake players since the start.
+   *
+   * @return number of chat messages.
+   */
+  long getChatMessageCount();
+
+  /**
+   * Returns the number of welcome messages sent by fake players since the start.
+   *
+   * @return number of welcome messages.
+   */
+  long getWelcomeMessageCount();
+
+  /**
+   * Returns the number of packets skipped by light clients since the start.
+   *
+   * @return number of skipped packets.
+   */
+  long getSkippedPacketCount();
+
+  /**
+   * Returns the number of bytes of packets skipped by light clients since the start.
+   *
+   * @return number of skipped bytes.
+   */
+  long getSkippedByteCount();
+
+  /**
+   * Returns the number of raw fake players, joined or still joining.
+   *
+   * @return number of raw fake players.
+   */
+  int getRawFakePlayerCount();
+
+  /**
+   * Returns the number of fully joined fake players.
+   *
+   * @return number of joined fake players.
+   */
+  int getFakePlayerCount();
+
+  /**
+   * Returns the number of ghost fake players.
+   *
+   * @return number of ghost fake players.
+   */
+  int getGhostFakePlayerCount();
+
+  /**
+   * Returns the number of fake players whose join commands haven't been all dispatched yet.
+   *
+   * @return number of fake players waiting for their join commands.
+   */
+  int getPendingJoinCommandCount();
+
+  /**
+   * Returns the number of Vault writes waiting to be applied.
+   *
+   * @return number of queued Vault writes.
+   */
+  int getQueuedVaultWriteCount();
+
+  /**
+   * Returns the number of the plugin's timers which haven't fired or been cancelled yet.
+   *
+   * @return number of pending timers.
+   */
+  int getPendingTimerCount();
+
+  /**
+   * Returns the number of the plugin's timers fired since the start.
+   *
+   * @return number of fired timers.
+   */
+  long getFiredTimerCount();
+
+  /**
+   * Returns the number of the plugin's timers cancelled since the start.
+   *
+   * @return number of cancelled timers.
+   */
+  long getCancelledTimerCount();
+
+  /**
+   * Returns the number of owners, usually fake players, which have pending timers.
+   *
+   * @return number of timer owners.
+   */
+  int getTimerOwnerCount();
+
+  /**
+   * Returns the median time from starting to join to the set up.
+   *
+   * @return median join latency in milliseconds.
+   */
+  long getJoinLatencyMedianMillis();
+
+  /**
+   * Returns the 99th percentile of the time from starting to join to the set up.
+   *
+   * @return 99th percentile join latency in milliseconds.
+   */
+  long getJoinLatency99thPercentileMillis();
+
+  /**
+   * Returns the highest time from starting to join to the set up.
+   *
+   * @return maximal join latency in milliseconds.
+   */
+  long getJoinLatencyMaxMillis();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.metrics;
+
+/**
+ * Phases of a fake player's join, each of them has its own latency histogram.
+ */
+public enum JoinPhase {
+  /**
+   * From queueing in the join pipeline to starting to join.
+   */
+  QUEUE,
+  /**
+   * From starting to join to the connection being established.
+   */
+  CONNECT,
+  /**
+   * From the connection being established to the login being accepted.
+   */
+  LOGIN,
+  /**
+   * From the login being accepted to the PlayerJoinEvent and the fake player's set up.
+   */
+  SETUP,
+  /**
+   * From starting to join to the fake player's set up, all the phases but the queue together.
+   */
+  TOTAL
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in milliseconds with a bounded relative error, like an HDR histogram.
+ * <p>
+ * Values below 16 have their own buckets, above that each power of two is split into 8 buckets,
+ * so a percentile is off by at most 1/8 of its value, and the histogram has a fixed size
+ * whatever the values are. Recording is lock-free and safe from any thread.
+ * </p>
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+  private static final int LINEAR_MAGNITUDE = 4;
+  private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - LINEAR_MAGNITUDE) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency.
+   *
+   * @param millis the latency in milliseconds, negative values are recorded as 0.
+   */
+  public void record(long millis) {
+    long value = Math.max(0, millis);
+    buckets.incrementAndGet(indexOf(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return number of recorded latencies.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of all recorded latencies.
+   *
+   * @return sum in milliseconds.
+   */
+  public long getSumMillis() {
+    return sum.sum();
+  }
+
+  /**
+   * Returns the highest recorded latency.
+   *
+   * @return maximum in milliseconds, 0 if nothing was recorded.
+   */
+  public long getMaxMillis() {
+    return max.get();
+  }
+
+  /**
+   * Returns the latency below or at which the given fraction of recorded latencies is.
+   *
+   * @param quantile fraction between 0 and 1, e.g. 0.99 for the 99th percentile.
+   * @return the latency in milliseconds, 0 if nothing was recorded.
+   */
+  public long getQuantileMillis(double quantile) {
+    long total = getCount();
+    if (total == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets.get(i);
+      if (seen >= target) {
+        return Math.min(highestValueOf(i), getMaxMillis());
+      }
+    }
+    return getMaxMillis();
+  }
+
+  private static int indexOf(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_LIMIT + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long highestValueOf(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int magnitude = (index - LINEAR_LIMIT) / SUB_BUCKETS + LINEAR_MAGNITUDE;
+    int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+    int shift = magnitude - SUB_BUCKET_BITS;
+    long lowest = (1L << magnitude) + ((long) subBucket << shift);
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.metrics;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.fakeplayers.JoinPipeline;
+import me.marlester.rfp.fakeplayers.RemovalReason;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.joincommands.JoinCommandDispatcher;
+import me.marlester.rfp.load.LoadGovernor;
+import me.marlester.rfp.timer.TimingWheel;
+import me.marlester.rfp.vault.VaultIntegration;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.Bukkit;
+
+/**
+ * Exposes {@link FakePlayerMetrics} together with gauges of fake players, as a JMX MXBean and
+ * as a file in the Prometheus text format, e.g. for the node exporter's textfile collector.
+ * The file is rendered on the main thread and written off it, replacing the previous one
+ * atomically.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class MetricsExporter implements FakePlayerMetricsMXBean {
+
+  /**
+   * JMX object name of the metrics.
+   */
+  public static final String OBJECT_NAME = "me.marlester.rfp:type=FakePlayerMetrics";
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+  private final ReallyFakePlayers pl;
+  private final ConfigYml configYml;
+  private final FakePlayerMetrics metrics;
+  private final FakeLister fakeLister;
+  private final JoinPipeline joinPipeline;
+  private final LoadGovernor loadGovernor;
+  private final JoinCommandDispatcher joinCommandDispatcher;
+  private final VaultIntegration vaultIntegration;
+  private final TimingWheel timingWheel;
+  private final ComponentLogger logger;
+
+  private boolean registered;
+
+  /**
+   * Registers the MXBean and starts dumping the Prometheus file, if configured so.
+   */
+  public void start() {
+    if (configYml.getSettings().metrics().jmx()) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+            new ObjectName(OBJECT_NAME));
+        registered = true;
+      } catch (JMException e) {
+        logger.warn("Couldn't register the metrics MXBean!", e);
+      }
+    }
+    scheduleDump();
+  }
+
+  /**
+   * Unregisters the MXBean and stops dumping the Prometheus file.
+   */
+  public void stop() {
+    timingWheel.cancelAll(this);
+    if (registered) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+      } catch (JMException e) {
+        logger.warn("Couldn't unregister the metrics MXBean!", e);
+      }
+      registered = false;
+    }
+  }
+
+  /**
+   * Renders all metrics in the Prometheus text format. Must be called from the main thread.
+   *
+   * @return the metrics.
+   */
+  public String renderPrometheus() {
+    var out = new StringBuilder(4096);
+    out.append("# HELP rfp_join_phase_seconds Latency of fake players' join phases.\n");
+    out.append("# TYPE rfp_join_phase_seconds summary\n");
+    for (JoinPhase phase : JoinPhase.values()) {
+      var histogram = metrics.getJoinPhase(phase);
+      var label = "phase=\"" + phase.name().toLowerCase(Locale.ROOT) + "\"";
+      for (double quantile : QUANTILES) {
+        sample(out, "rfp_join_phase_seconds{" + label + ",quantile=\"" + quantile + "\"}",
+            histogram.getQuantileMillis(quantile) / 1000.0);
+      }
+      sample(out, "rfp_join_phase_seconds_sum{" + label + "}",
+          histogram.getSumMillis() / 1000.0);
+      sample(out, "rfp_join_phase_seconds_count{" + label + "}", histogram.getCount());
+    }
+    header(out, "rfp_joins_total", "counter", "Fake players which fully joined.");
+    sample(out, "rfp_joins_total", metrics.getJoinCount());
+    header(out, "rfp_removals_total", "counter", "Removed fake players by the reason.");
+    for (RemovalReason reason : RemovalReason.values()) {
+      sample(out, "rfp_removals_total{reason=\"" + reason.name().toLowerCase(Locale.ROOT)
+          + "\"}", metrics.getRemovalCount(reason));
+    }
+    header(out, "rfp_disconnect_errors_total", "counter",
+        "Fake players' clients disconnected with an error.");
+    sample(out, "rfp_disconnect_errors_total", metrics.getDisconnectErrorCount());
+    header(out, "rfp_chat_messages_total", "counter", "Chat messages of chatting fake players.");
+    sample(out, "rfp_chat_messages_total", metrics.getChatMessageCount());
+    header(out, "rfp_welcome_messages_total", "counter", "Welcome messages of fake players.");
+    sample(out, "rfp_welcome_messages_total", metrics.getWelcomeMessageCount());
+    header(out, "rfp_light_client_skipped_packets_total", "counter",
+        "Packets skipped by light clients without being decoded.");
+    sample(out, "rfp_light_client_skipped_packets_total", metrics.getSkippedPacketCount());
+    header(out, "rfp_light_client_skipped_bytes_total", "counter",
+        "Bytes of packets skipped by light clients without being decoded.");
+    sample(out, "rfp_light_client_skipped_bytes_total", metrics.getSkippedByteCount());
+    header(out, "rfp_fake_players", "gauge", "Current fake players by the state.");
+    sample(out, "rfp_fake_players{state=\"queued\"}", joinPipeline.getQueueDepth());
+    sample(out, "rfp_fake_players{state=\"logging_in\"}", joinPipeline.getInFlightCount());
+    sample(out, "rfp_fake_players{state=\"raw\"}", getRawFakePlayerCount());
+    sample(out, "rfp_fake_players{state=\"joined\"}", getFakePlayerCount());
+    sample(out, "rfp_fake_players{state=\"ghost\"}", getGhostFakePlayerCount());
+    header(out, "rfp_pending_join_commands", "gauge",
+        "Fake players waiting for their join commands.");
+    sample(out, "rfp_pending_join_commands", getPendingJoinCommandCount());
+    header(out, "rfp_queued_vault_writes", "gauge", "Vault writes waiting to be applied.");
+    sample(out, "rfp_queued_vault_writes", getQueuedVaultWriteCount());
+    header(out, "rfp_timers", "gauge", "The plugin's timers which haven't fired yet.");
+    sample(out, "rfp_timers", getPendingTimerCount());
+    header(out, "rfp_timer_owners", "gauge", "Owners, usually fake players, with pending timers.");
+    sample(out, "rfp_timer_owners", getTimerOwnerCount());
+    header(out, "rfp_timers_fired_total", "counter", "The plugin's timers which fired.");
+    sample(out, "rfp_timers_fired_total", getFiredTimerCount());
+    header(out, "rfp_timers_cancelled_total", "counter", "The plugin's cancelled timers.");
+    sample(out, "rfp_timers_cancelled_total", getCancelledTimerCount());
+    header(out, "rfp_load_mspt", "gauge", "Average milliseconds per tick seen by the plugin.");
+    sample(out, "rfp_load_mspt", loadGovernor.getMspt());
+    return out.toString();
+  }
+
+  @Override
+  public long getJoinCount() {
+    return metrics.getJoinCount();
+  }
+
+  @Override
+  public long getRemovalCount() {
+    return metrics.getRemovalCount();
+  }
+
+  @Override
+  public long getTimedOutJoinCount() {
+    return metrics.getRemovalCount(RemovalReason.TIMED_OUT);
+  }
+
+  @Override
+  public long getFailedJoinCount() {
+    return metrics.getRemovalCount(RemovalReason.FAILED);
+  }
+
+  @Override
+  public long getDisconnectErrorCount() {
+    return metrics.getDisconnectErrorCount();
+  }
+
+  @Override
+  public long getChatMessageCount() {
+    return metrics.getChatMessageCount();
+  }
+
+  @Override
+  public long getWelcomeMessageCount() {
+    return metrics.getWelcomeMessageCount();
+  }
+
+  @Override
+  public long getSkippedPacketCount() {
+    return metrics.getSkippedPacketCount();
+  }
+
+  @Override
+  public long getSkippedByteCount() {
+    return metrics.getSkippedByteCount();
+  }
+
+  @Override
+  public int getRawFakePlayerCount() {
+    return fakeLister.getRawFakePlayerCount();
+  }
+
+  @Override
+  public int getFakePlayerCount() {
+    return fakeLister.getFakePlayerCount();
+  }
+
+  @Override
+  public int getGhostFakePlayerCount() {
+    return fakeLister.getGhostFakePlayerCount();
+  }
+
+  @Override
+  public int getPendingJoinCommandCount() {
+    return joinCommandDispatcher.getPendingCount();
+  }
+
+  @Override
+  public int getQueuedVaultWriteCount() {
+    return vaultIntegration.getQueuedWrites();
+  }
+
+  @Override
+  public int getPendingTimerCount() {
+    return timingWheel.getPendingTimeouts();
+  }
+
+  @Override
+  public long getFiredTimerCount() {
+    return timingWheel.getFiredTimeouts();
+  }
+
+  @Override
+  public long getCancelledTimerCount() {
+    return timingWheel.getCancelledTimeouts();
+  }
+
+  @Override
+  public int getTimerOwnerCount() {
+    return timingWheel.getOwnerCount();
+  }
+
+  @Override
+  public long getJoinLatencyMedianMillis() {
+    return metrics.getJoinPhase(JoinPhase.TOTAL).getQuantileMillis(0.5);
+  }
+
+  @Override
+  public long getJoinLatency99thPercentileMillis() {
+    return metrics.getJoinPhase(JoinPhase.TOTAL).getQuantileMillis(0.99);
+  }
+
+  @Override
+  public long getJoinLatencyMaxMillis() {
+    return metrics.getJoinPhase(JoinPhase.TOTAL).getMaxMillis();
+  }
+
+  private void scheduleDump() {
+    // Read on every dump, so a reload applies to the next one
+    var settings = configYml.getSettings().metrics();
+    timingWheel.schedule(this, 20L * settings.prometheusInterval(), () -> {
+      var file = configYml.getSettings().metrics().prometheusFile();
+      if (file != null) {
+        var path = pl.getDataFolder().toPath().resolve(file);
+        var text = renderPrometheus();
+        Bukkit.getScheduler().runTaskAsynchronously(pl, () -> write(path, text));
+      }
+      scheduleDump();
+    });
+  }
+
+  private void write(Path path, String text) {
+    var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try {
+      Files.writeString(temporary, text);
+      Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.warn("Couldn't write the metrics to " + path + "!", e);
+    }
+  }
+
+  private static void header(StringBuilder out, String name, String type, String help) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, double value) {
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void sample(StringBuilder out, String name, long value) {
+    out.append(name).append(' ').append(value).append('\n');
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.minimessage;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A message compiled once for fast deserializing into plain text.
+ * <p>
+ * Messages consisting only of text and internal player name placeholders are split into segments,
+ * so rendering them is just a concatenation. All other messages (tags, escapes, other
+ * placeholders) can't be rendered by the template and must go through MiniMessage.
+ * </p>
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class MessageTemplate {
+
+  private static final ImmutableMap<String, SegmentType> PLACEHOLDERS = ImmutableMap.of(
+      "internal_player_name", SegmentType.PLAYER_NAME,
+      "internal_rel_1_player_name", SegmentType.REL_1_PLAYER_NAME,
+      "internal_rel_2_player_name", SegmentType.REL_2_PLAYER_NAME
+  );
+
+  /**
+   * The original message.
+   */
+  @Getter
+  private final String input;
+  /**
+   * Segments of the message, null if it needs MiniMessage.
+   */
+  private final @Nullable ImmutableList<Segment> segments;
+  private final boolean audiencePlaceholders;
+  private final boolean relationalPlaceholders;
+
+  static MessageTemplate compile(String input) {
+    // Escapes need MiniMessage's parser
+    if (input.indexOf('\\') >= 0) {
+      return new MessageTemplate(input, null, false, false);
+    }
+    var segments = ImmutableList.<Segment>builder();
+    boolean audience = false;
+    boolean relational = false;
+    int i = 0;
+    while (i < input.length()) {
+      int open = input.indexOf('<', i);
+      if (open < 0) {
+        segments.add(new Segment(SegmentType.TEXT, input.substring(i)));
+        break;
+      }
+      if (open > i) {
+        segments.add(new Segment(SegmentType.TEXT, input.substring(i, open)));
+      }
+      int close = input.indexOf('>', open);
+      var type = close < 0 ? null : PLACEHOLDERS.get(input.substring(open + 1, close));
+      if (type == null) {
+        return new MessageTemplate(input, null, false, false);
+      }
+      segments.add(new Segment(type, null));
+      if (type == SegmentType.PLAYER_NAME) {
+        audience = true;
+      } else {
+        relational = true;
+      }
+      i = close + 1;
+    }
+    return new MessageTemplate(input, segments.build(), audience, relational);
+  }
+
+  /**
+   * Renders the message without any audience.
+   *
+   * @return the plain text, or null if MiniMessage is needed.
+   */
+  public @Nullable String render() {
+    if (segments == null || audiencePlaceholders || relationalPlaceholders) {
+      return null;
+    }
+    return render(null, null);
+  }
+
+  /**
+   * Renders the message with audience placeholders.
+   *
+   * @param player the audience for placeholders, internal placeholders need a player.
+   * @return the plain text, or null if MiniMessage is needed.
+   */
+  public @Nullable String render(Audience player) {
+    if (segments == null || relationalPlaceholders
+        || (audiencePlaceholders && !(player instanceof Player))) {
+      return null;
+    }
+    return render((Player) (audiencePlaceholders ? player : null), null);
+  }
+
+  /**
+   * Renders the message with relational placeholders.
+   *
+   * @param player      the primary audience, internal placeholders need a player.
+   * @param otherPlayer the secondary audience, internal placeholders need a player.
+   * @return the plain text, or null if MiniMessage is needed.
+   */
+  public @Nullable String render(Audience player, Audience otherPlayer) {
+    if (segments == null || audiencePlaceholders) {
+      return null;
+    }
+    if (!relationalPlaceholders) {
+      return render(null, null);
+    }
+    if (!(player instanceof Player first) || !(otherPlayer instanceof Player second)) {
+      return null;
+    }
+    return render(first, second);
+  }
+
+  private String render(@Nullable Player first, @Nullable Player second) {
+    if (segments.size() == 1 && segments.get(0).type() == SegmentType.TEXT) {
+      return segments.get(0).text();
+    }
+    var builder = new StringBuilder(input.length() + 16);
+    for (Segment segment : segments) {
+      switch (segment.type()) {
+        case TEXT -> builder.append(segment.text());
+        case PLAYER_NAME, REL_1_PLAYER_NAME -> builder.append(first.getName());
+        case REL_2_PLAYER_NAME -> builder.append(second.getName());
+      }
+    }
+    return builder.toString();
+  }
+
+  private enum SegmentType {
+    TEXT,
+    PLAYER_NAME,
+    REL_1_PLAYER_NAME,
+    REL_2_PLAYER_NAME
+  }
+
+  private record Segment(SegmentType type, @Nullable String text) {
+  }
+}
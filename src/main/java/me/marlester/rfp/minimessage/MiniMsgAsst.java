@@ -17,6 +17,9 @@
 
 package me.marlester.rfp.minimessage;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.google.inject.name.Named;
@@ -35,14 +38,42 @@ import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
  * This class provides methods to deserialize strings using MiniMessage format. It supports
  * global, audience-specific, and relational placeholders, provided by the internal expansion.
  * </p>
+ * <p>
+ * Plain text deserializing goes through a cache of {@link MessageTemplate}s, so messages without
+ * any tags but internal player name placeholders never hit the MiniMessage parser. The cache is
+ * bounded, the least recently used templates are dropped, so dynamic messages can't grow it
+ * without limit.
+ * </p>
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class MiniMsgAsst {
 
+  private static final int MAX_TEMPLATES = 1024;
+
   private final MiniMessage miniMessage;
   @Named("internalPlaceholdersExpansion")
   private final Expansion internalExpansion;
+  private final LoadingCache<String, MessageTemplate> templates = CacheBuilder.newBuilder()
+      .maximumSize(MAX_TEMPLATES)
+      .build(CacheLoader.from(MessageTemplate::compile));
+
+  /**
+   * Gets the compiled template of a message, compiling it on first use.
+   *
+   * @param input The message.
+   * @return The template.
+   */
+  public MessageTemplate getTemplate(String input) {
+    return templates.getUnchecked(input);
+  }
+
+  /**
+   * Clears compiled templates, call when messages might have been changed.
+   */
+  public void invalidateTemplates() {
+    templates.invalidateAll();
+  }
 
   /**
    * Deserializes a string using MiniMessage format with global placeholders.
@@ -95,6 +126,10 @@ public class MiniMsgAsst {
    * @return The deserialized string in plain text.
    */
   public String deserializeAsPlainText(String input) {
+    var rendered = getTemplate(input).render();
+    if (rendered != null) {
+      return rendered;
+    }
     return PlainTextComponentSerializer.plainText().serialize(deserialize(input));
   }
 
@@ -106,6 +141,10 @@ public class MiniMsgAsst {
    * @return The deserialized string in plain text.
    */
   public String deserializeAsPlainText(String input, Audience placeholderAudience) {
+    var rendered = getTemplate(input).render(placeholderAudience);
+    if (rendered != null) {
+      return rendered;
+    }
     return PlainTextComponentSerializer.plainText().serialize(deserialize(input,
         placeholderAudience));
   }
@@ -120,6 +159,10 @@ public class MiniMsgAsst {
    */
   public String deserializeAsPlainText(String input, Audience placeholderAudience,
       Audience otherPlaceholderAudience) {
+    var rendered = getTemplate(input).render(placeholderAudience, otherPlaceholderAudience);
+    if (rendered != null) {
+      return rendered;
+    }
     return PlainTextComponentSerializer.plainText().serialize(deserialize(input,
         placeholderAudience, otherPlaceholderAudience));
   }
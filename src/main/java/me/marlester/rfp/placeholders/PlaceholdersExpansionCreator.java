@@ -20,9 +20,11 @@ package me.marlester.rfp.placeholders;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.github.miniplaceholders.api.Expansion;
+import java.util.Locale;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.load.LoadGovernor;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.tag.Tag;
 import org.bukkit.Bukkit;
@@ -35,6 +37,7 @@ import org.bukkit.Bukkit;
 public class PlaceholdersExpansionCreator {
 
   private final FakeLister fakeLister;
+  private final LoadGovernor loadGovernor;
 
   /**
    * Creates an Expansion with placeholders.
@@ -44,13 +47,24 @@ public class PlaceholdersExpansionCreator {
   public Expansion createExpansion() {
     return Expansion.builder("rfp")
         .globalPlaceholder("fakeplayers_count", (ctx, queue) -> {
-          return Tag.selfClosingInserting(Component.text(fakeLister.getFakePlayers().size()));
+          return Tag.selfClosingInserting(Component.text(fakeLister.getFakePlayerCount()));
+        })
+        .globalPlaceholder("ghost_fakeplayers_count", (ctx, queue) -> {
+          return Tag.selfClosingInserting(Component.text(fakeLister.getGhostFakePlayerCount()));
         })
         .globalPlaceholder("rfp_player_count_no_fakeplayers", (ctx, queue) -> {
-          int fakePlayersCount = fakeLister.getFakePlayers().size();
+          int fakePlayersCount = fakeLister.getFakePlayerCount();
           int total = Bukkit.getOnlinePlayers().size();
           return Tag.selfClosingInserting(Component.text(total - fakePlayersCount));
         })
+        .globalPlaceholder("load_state", (ctx, queue) -> {
+          var state = loadGovernor.getState().name().toLowerCase(Locale.ROOT);
+          return Tag.selfClosingInserting(Component.text(state));
+        })
+        .globalPlaceholder("load_mspt", (ctx, queue) -> {
+          var mspt = String.format(Locale.ROOT, "%.1f", loadGovernor.getMspt());
+          return Tag.selfClosingInserting(Component.text(mspt));
+        })
         .build();
   }
 }
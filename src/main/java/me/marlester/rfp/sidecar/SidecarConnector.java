@@ -0,0 +1,220 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.sidecar;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.fakeplayers.FakePlayer;
+import me.marlester.rfp.fakeplayers.RemovalReason;
+import me.marlester.rfp.faketools.FakeLister;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Controls the sidecar, a separate process hosting fake players' client sessions, over a Unix
+ * domain socket. With the sidecar the server's JVM keeps only the server side of fake players.
+ * <p>
+ * The protocol is line based UTF-8 text, fake players are identified by their keys, see the
+ * sidecar's {@code ControlConnection} for the messages. Messages are queued and written by
+ * a separate thread, so a stalled sidecar never blocks the main thread. The connection is
+ * opened on the first message, if it breaks, the next message reconnects.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class SidecarConnector {
+
+  private final ReallyFakePlayers pl;
+  private final ConfigYml configYml;
+  private final FakeLister fakeLister;
+  private final ComponentLogger logger;
+
+  private final BlockingQueue<Message> outgoing = new LinkedBlockingQueue<>();
+  // Guarded by this
+  private @Nullable Thread writer;
+  private volatile @Nullable SocketChannel channel;
+
+  /**
+   * Asks the sidecar to connect a fake player. If the message can't be delivered, the fake
+   * player is removed as failed.
+   *
+   * @param fakePlayer the fake player, its key must be set.
+   * @param host       host to connect to.
+   * @param port       port to connect to.
+   */
+  public void join(FakePlayer fakePlayer, String host, int port) {
+    send(new Message(fakePlayer.getKey(), "JOIN " + fakePlayer.getKey() + " "
+        + fakePlayer.getName() + " " + host + " " + port));
+  }
+
+  /**
+   * Asks the sidecar to disconnect a fake player.
+   *
+   * @param fakePlayer the fake player.
+   */
+  public void remove(FakePlayer fakePlayer) {
+    send(new Message(null, "REMOVE " + fakePlayer.getKey()));
+  }
+
+  /**
+   * Closes the connection with the sidecar, it disconnects all fake players then.
+   * Messages not written yet are dropped.
+   */
+  public synchronized void close() {
+    if (writer != null) {
+      writer.interrupt();
+      writer = null;
+    }
+    outgoing.clear();
+    var current = channel;
+    channel = null;
+    closeQuietly(current);
+  }
+
+  private synchronized void send(Message message) {
+    outgoing.add(message);
+    if (writer == null) {
+      writer = new Thread(this::write, "RFP Sidecar Writer");
+      writer.setDaemon(true);
+      writer.start();
+    }
+  }
+
+  private void write() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        write(outgoing.take());
+      }
+    } catch (InterruptedException e) {
+      // Closed
+    }
+  }
+
+  private void write(Message message) {
+    // Messages are lines, a line break in them would split them
+    var buffer = ByteBuffer.wrap((message.line().replace('\n', ' ') + "\n")
+        .getBytes(StandardCharsets.UTF_8));
+    try {
+      var current = channel;
+      if (current == null || !current.isOpen()) {
+        current = connect();
+      }
+      while (buffer.hasRemaining()) {
+        current.write(buffer);
+      }
+    } catch (IOException e) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      logger.error("Couldn't send a message to the sidecar, is it running?", e);
+      closeQuietly(channel);
+      channel = null;
+      var joinKey = message.joinKey();
+      if (joinKey != null) {
+        runTask(() -> handleDisconnected(joinKey));
+      }
+    }
+  }
+
+  private SocketChannel connect() throws IOException {
+    var socketPath = pl.getDataFolder().toPath()
+        .resolve(configYml.getSettings().sidecar().socket());
+    var newChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
+    newChannel.connect(UnixDomainSocketAddress.of(socketPath));
+    channel = newChannel;
+    var reader = new Thread(() -> read(newChannel), "RFP Sidecar Reader");
+    reader.setDaemon(true);
+    reader.start();
+    logger.info("Connected to the sidecar at " + socketPath + ".");
+    return newChannel;
+  }
+
+  private void read(SocketChannel readChannel) {
+    try (var reader = new BufferedReader(new InputStreamReader(
+        Channels.newInputStream(readChannel), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] parts = line.split(" ", 2);
+        if ("DISCONNECTED".equals(parts[0]) && parts.length == 2) {
+          var key = UUID.fromString(parts[1].trim());
+          runTask(() -> handleDisconnected(key));
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      if (readChannel.isOpen()) {
+        logger.warn("Connection with the sidecar failed!", e);
+      }
+    } finally {
+      closeQuietly(readChannel);
+    }
+  }
+
+  private void runTask(Runnable task) {
+    // The plugin might be disabled already, the sidecar's fake players are gone then anyway
+    if (pl.isEnabled()) {
+      Bukkit.getScheduler().runTask(pl, task);
+    }
+  }
+
+  private void handleDisconnected(UUID key) {
+    var uuid = fakeLister.getFakePlayerUuidsByKey().get(key);
+    var fakePlayer = uuid == null ? null : fakeLister.getRawFakePlayer(uuid);
+    // Joined ones get removed by the quit listener, the server notices the disconnect too
+    if (fakePlayer != null && fakePlayer.getPlayer() == null) {
+      fakePlayer.remove(RemovalReason.FAILED);
+    }
+  }
+
+  private static void closeQuietly(@Nullable SocketChannel toClose) {
+    if (toClose == null) {
+      return;
+    }
+    try {
+      toClose.close();
+    } catch (IOException ignored) {
+      // Closing anyway
+    }
+  }
+
+  /**
+   * A message waiting to be written.
+   *
+   * @param joinKey key of the fake player to remove as failed if the message can't be written,
+   *                or null if nothing has to be done then.
+   * @param line    the message, without the line break.
+   */
+  private record Message(@Nullable UUID joinKey, String line) {
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.timer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A hash set whose elements leave it on their own after a given number of ticks.
+ * Adding, removing and checking elements is constant time, expiry is driven by
+ * the {@link TimingWheel}, so it costs no scheduler task per element.
+ * <br>
+ * Main thread only, like the timing wheel.
+ *
+ * @param <T> type of the elements.
+ */
+public class ExpiringSet<T> {
+
+  private final TimingWheel timingWheel;
+  private final Map<T, TimingWheel.Timeout> timeouts = new HashMap<>();
+
+  /**
+   * Creates an empty set.
+   *
+   * @param timingWheel timing wheel expiring the elements.
+   */
+  public ExpiringSet(TimingWheel timingWheel) {
+    this.timingWheel = timingWheel;
+  }
+
+  /**
+   * Adds an element which expires after the given number of ticks.
+   * An element already in the set keeps its original expiry.
+   *
+   * @param element    element to add.
+   * @param delayTicks ticks after which the element expires.
+   * @return true if the element was added, false if it was already in the set.
+   */
+  public boolean add(T element, long delayTicks) {
+    if (timeouts.containsKey(element)) {
+      return false;
+    }
+    timeouts.put(element, timingWheel.schedule(null, delayTicks, () -> timeouts.remove(element)));
+    return true;
+  }
+
+  /**
+   * Removes an element before it expires.
+   *
+   * @param element element to remove.
+   * @return true if the element was removed, false if it wasn't in the set.
+   */
+  public boolean remove(T element) {
+    var timeout = timeouts.remove(element);
+    if (timeout == null) {
+      return false;
+    }
+    timeout.cancel();
+    return true;
+  }
+
+  /**
+   * Checks if an element is in the set, i.e. it was added and hasn't expired yet.
+   *
+   * @param element element to check.
+   * @return true if the element is in the set.
+   */
+  public boolean contains(T element) {
+    return timeouts.containsKey(element);
+  }
+
+  /**
+   * Returns the number of elements that haven't expired yet.
+   *
+   * @return number of elements.
+   */
+  public int size() {
+    return timeouts.size();
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.timer;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.ReallyFakePlayers;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A hashed timing wheel for the plugin's timers, ticked once per server tick.
+ * <p>
+ * Instead of a scheduler task per timer, all timers live in one wheel driven by a single task.
+ * Timers can be owned by an object (usually a fake player), so all of them can be cancelled at
+ * once with {@link #cancelAll(Object)}. Must only be used from the main thread.
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class TimingWheel {
+
+  // Must be a power of two
+  private static final int WHEEL_SIZE = 512;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  private final ReallyFakePlayers pl;
+  private final ComponentLogger logger;
+
+  private final Timeout[] wheel = new Timeout[WHEEL_SIZE];
+  private final Map<Object, Set<Timeout>> timeoutsByOwner = new HashMap<>();
+  private final List<Timeout> expired = new ArrayList<>();
+  private long currentTick;
+  private @Nullable BukkitTask task;
+
+  // The counters are changed on the main thread only, volatile so metrics can read them anywhere
+  /**
+   * Number of scheduled timers which haven't fired or been cancelled yet.
+   */
+  @Getter
+  private volatile int pendingTimeouts;
+  /**
+   * Number of timers fired since the start.
+   */
+  @Getter
+  private volatile long firedTimeouts;
+  /**
+   * Number of timers cancelled since the start.
+   */
+  @Getter
+  private volatile long cancelledTimeouts;
+
+  /**
+   * Starts ticking the wheel, does nothing if already started.
+   */
+  public void start() {
+    if (task != null) {
+      return;
+    }
+    task = Bukkit.getScheduler().runTaskTimer(pl, this::tick, 1, 1);
+  }
+
+  /**
+   * Stops ticking the wheel and drops all pending timers without running them.
+   */
+  public void stop() {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      for (Timeout timeout = wheel[i]; timeout != null; timeout = timeout.next) {
+        timeout.cancelled = true;
+      }
+      wheel[i] = null;
+    }
+    timeoutsByOwner.clear();
+    pendingTimeouts = 0;
+  }
+
+  /**
+   * Schedules an action to run after the given number of ticks.
+   *
+   * @param owner      owner of the timer, may be null if the timer should never be cancelled
+   *                   with {@link #cancelAll(Object)}.
+   * @param delayTicks delay in ticks, values below 1 mean the next tick.
+   * @param action     the action to run.
+   * @return the scheduled timer.
+   */
+  public Timeout schedule(@Nullable Object owner, long delayTicks, Runnable action) {
+    var timeout = new Timeout(owner, currentTick + Math.max(1, delayTicks), action);
+    int slot = (int) (timeout.deadline & WHEEL_MASK);
+    timeout.next = wheel[slot];
+    if (timeout.next != null) {
+      timeout.next.prev = timeout;
+    }
+    wheel[slot] = timeout;
+    if (owner != null) {
+      timeoutsByOwner.computeIfAbsent(owner, k -> Collections.newSetFromMap(
+          new IdentityHashMap<>())).add(timeout);
+    }
+    pendingTimeouts++;
+    return timeout;
+  }
+
+  /**
+   * Cancels all pending timers of the owner.
+   *
+   * @param owner owner of the timers.
+   */
+  public void cancelAll(Object owner) {
+    var timeouts = timeoutsByOwner.remove(owner);
+    if (timeouts == null) {
+      return;
+    }
+    for (Timeout timeout : timeouts) {
+      unlink(timeout);
+      timeout.cancelled = true;
+      cancelledTimeouts++;
+    }
+  }
+
+  /**
+   * Returns the number of owners which have pending timers.
+   *
+   * @return number of owners.
+   */
+  public int getOwnerCount() {
+    return timeoutsByOwner.size();
+  }
+
+  private void tick() {
+    currentTick++;
+    int slot = (int) (currentTick & WHEEL_MASK);
+    // Collect first, actions may schedule or cancel other timers
+    for (Timeout timeout = wheel[slot]; timeout != null; timeout = timeout.next) {
+      if (timeout.deadline <= currentTick) {
+        expired.add(timeout);
+      }
+    }
+    if (expired.isEmpty()) {
+      return;
+    }
+    for (Timeout timeout : expired) {
+      unlink(timeout);
+    }
+    for (Timeout timeout : expired) {
+      // Might have been cancelled by a previous action, owners are forgotten only right before
+      // running, so cancelAll still reaches the timers expiring later in this tick
+      if (timeout.cancelled) {
+        continue;
+      }
+      forgetOwner(timeout);
+      timeout.fired = true;
+      firedTimeouts++;
+      try {
+        timeout.action.run();
+      } catch (Throwable t) {
+        logger.error("Error while running a timer!", t);
+      }
+    }
+    expired.clear();
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.linked) {
+      int slot = (int) (timeout.deadline & WHEEL_MASK);
+      if (timeout.prev != null) {
+        timeout.prev.next = timeout.next;
+      } else {
+        wheel[slot] = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.linked = false;
+      pendingTimeouts--;
+    }
+  }
+
+  private void forgetOwner(Timeout timeout) {
+    if (timeout.owner == null) {
+      return;
+    }
+    var timeouts = timeoutsByOwner.get(timeout.owner);
+    if (timeouts != null && timeouts.remove(timeout) && timeouts.isEmpty()) {
+      timeoutsByOwner.remove(timeout.owner);
+    }
+  }
+
+  /**
+   * A timer scheduled in the {@link TimingWheel}.
+   */
+  @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+  public final class Timeout {
+
+    private final @Nullable Object owner;
+    private final long deadline;
+    private final Runnable action;
+    private @Nullable Timeout prev;
+    private @Nullable Timeout next;
+    private boolean linked = true;
+    @Getter
+    private boolean cancelled;
+    @Getter
+    private boolean fired;
+
+    /**
+     * Cancels this timer if it hasn't fired yet.
+     *
+     * @return true if the timer got cancelled by this call.
+     */
+    public boolean cancel() {
+      if (cancelled || fired) {
+        return false;
+      }
+      cancelled = true;
+      unlink(this);
+      forgetOwner(this);
+      cancelledTimeouts++;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.transport;
+
+import com.github.steveice10.mc.protocol.MinecraftProtocol;
+import com.github.steveice10.mc.protocol.data.ProtocolState;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundAnimatePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityPosRotPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundMoveEntityRotPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundRemoveEntitiesPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundRotateHeadPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundSetEntityDataPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundSetEntityMotionPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundSetEquipmentPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundTeleportEntityPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.ClientboundUpdateAttributesPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.entity.spawn.ClientboundAddEntityPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundBlockEntityDataPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundBlockUpdatePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundChunksBiomesPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundForgetLevelChunkPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLevelChunkWithLightPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLevelEventPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLevelParticlesPacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundLightUpdatePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundSectionBlocksUpdatePacket;
+import com.github.steveice10.mc.protocol.packet.ingame.clientbound.level.ClientboundSoundPacket;
+import com.github.steveice10.packetlib.codec.PacketCodecHelper;
+import com.github.steveice10.packetlib.packet.Packet;
+import com.google.common.collect.ImmutableSet;
+import io.netty.buffer.ByteBuf;
+import java.io.IOException;
+import me.marlester.rfp.metrics.FakePlayerMetrics;
+
+/**
+ * Minecraft protocol of a headless client, which doesn't decode packets it has no use for.
+ * <p>
+ * Fake players never look at chunks, lights or entities, so in the game state these packets are
+ * skipped without being decoded. Instead of them a shared {@link #DISCARDED} packet is received.
+ * Which packet ids get skipped is resolved once, ids are the same for all sessions. VDP
+ * </p>
+ */
+public class LightClientProtocol extends MinecraftProtocol {
+
+  /**
+   * Received in place of every skipped packet.
+   */
+  public static final Packet DISCARDED = new Packet() {
+  };
+
+  private static final ImmutableSet<Class<? extends Packet>> DISCARDED_CLASSES = ImmutableSet.of(
+      ClientboundLevelChunkWithLightPacket.class,
+      ClientboundLightUpdatePacket.class,
+      ClientboundChunksBiomesPacket.class,
+      ClientboundForgetLevelChunkPacket.class,
+      ClientboundBlockUpdatePacket.class,
+      ClientboundSectionBlocksUpdatePacket.class,
+      ClientboundBlockEntityDataPacket.class,
+      ClientboundLevelEventPacket.class,
+      ClientboundLevelParticlesPacket.class,
+      ClientboundSoundPacket.class,
+      ClientboundAddEntityPacket.class,
+      ClientboundRemoveEntitiesPacket.class,
+      ClientboundMoveEntityPosPacket.class,
+      ClientboundMoveEntityPosRotPacket.class,
+      ClientboundMoveEntityRotPacket.class,
+      ClientboundRotateHeadPacket.class,
+      ClientboundTeleportEntityPacket.class,
+      ClientboundSetEntityMotionPacket.class,
+      ClientboundSetEntityDataPacket.class,
+      ClientboundSetEquipmentPacket.class,
+      ClientboundUpdateAttributesPacket.class,
+      ClientboundAnimatePacket.class
+  );
+  private static final byte UNRESOLVED = 0;
+  private static final byte KEPT = 1;
+  private static final byte SKIPPED = 2;
+  // Racy, but every thread resolves an id to the same value
+  private static final byte[] gameIdVerdicts = new byte[256];
+
+  private final FakePlayerMetrics metrics;
+
+  /**
+   * Creates a light client protocol.
+   *
+   * @param username name of the client.
+   * @param metrics  metrics the skipped packets are counted in.
+   */
+  public LightClientProtocol(String username, FakePlayerMetrics metrics) {
+    super(username);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Packet createClientboundPacket(int id, ByteBuf buf, PacketCodecHelper codecHelper)
+      throws IOException {
+    if (getState() == ProtocolState.GAME && isSkipped(id)) {
+      int bytes = buf.readableBytes();
+      buf.skipBytes(bytes);
+      metrics.countSkippedPacket(bytes);
+      return DISCARDED;
+    }
+    return super.createClientboundPacket(id, buf, codecHelper);
+  }
+
+  private boolean isSkipped(int id) {
+    if (id < 0 || id >= gameIdVerdicts.length) {
+      return false;
+    }
+    byte verdict = gameIdVerdicts[id];
+    if (verdict == UNRESOLVED) {
+      verdict = DISCARDED_CLASSES.contains(getClientboundClass(id)) ? SKIPPED : KEPT;
+      gameIdVerdicts[id] = verdict;
+    }
+    return verdict == SKIPPED;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.transport;
+
+import com.github.steveice10.packetlib.packet.PacketProtocol;
+import com.github.steveice10.packetlib.tcp.TcpClientSession;
+import com.github.steveice10.packetlib.tcp.TcpPacketCodec;
+import com.github.steveice10.packetlib.tcp.TcpPacketSizer;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+
+/**
+ * MCProtocolLib's client session connecting through a local channel instead of a socket.
+ * The packets are still encoded, as the server decodes them like from any other client,
+ * but there are no sockets, syscalls and kernel copies involved.
+ */
+class LocalClientSession extends TcpClientSession {
+
+  private final LocalAddress address;
+  private final EventLoopGroup eventLoopGroup;
+
+  LocalClientSession(LocalAddress address, EventLoopGroup eventLoopGroup,
+      PacketProtocol protocol) {
+    super(address.id(), 0, protocol);
+    this.address = address;
+    this.eventLoopGroup = eventLoopGroup;
+  }
+
+  @Override
+  public void connect(boolean wait) {
+    var bootstrap = new Bootstrap()
+        .channel(LocalChannel.class)
+        .group(eventLoopGroup)
+        .handler(new ChannelInitializer<>() {
+          @Override
+          protected void initChannel(Channel channel) {
+            var protocol = getPacketProtocol();
+            protocol.newClientSession(LocalClientSession.this);
+            // Like the TCP sessions, so a wedged local session times out too
+            refreshReadTimeoutHandler(channel);
+            refreshWriteTimeoutHandler(channel);
+            var pipeline = channel.pipeline();
+            int size = protocol.getPacketHeader().getLengthSize();
+            if (size > 0) {
+              pipeline.addLast("sizer", new TcpPacketSizer(LocalClientSession.this, size));
+            }
+            pipeline.addLast("codec", new TcpPacketCodec(LocalClientSession.this, true));
+            pipeline.addLast("manager", LocalClientSession.this);
+          }
+        });
+    var future = bootstrap.connect(address);
+    if (wait) {
+      future.syncUninterruptibly();
+    }
+    future.addListener(connectFuture -> {
+      if (!connectFuture.isSuccess()) {
+        exceptionCaught(null, connectFuture.cause());
+      }
+    });
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.transport;
+
+import io.netty.channel.ChannelHandlerContext;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import net.minecraft.network.Connection;
+import net.minecraft.network.protocol.PacketFlow;
+
+/**
+ * A server-side connection of a fake player joined through the {@link LocalTransport}.
+ * <p>
+ * Local channels have no internet address, but the login process and plugins expect one, so the
+ * connection pretends to come from the loopback address. VDP
+ * </p>
+ */
+class LocalConnection extends Connection {
+
+  private static final InetSocketAddress LOOPBACK_ADDRESS =
+      new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+  LocalConnection() {
+    super(PacketFlow.SERVERBOUND);
+  }
+
+  @Override
+  public void channelActive(ChannelHandlerContext ctx) throws Exception {
+    super.channelActive(ctx);
+    address = LOOPBACK_ADDRESS;
+  }
+}
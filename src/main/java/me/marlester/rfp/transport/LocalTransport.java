@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.transport;
+
+import com.github.steveice10.packetlib.Session;
+import com.github.steveice10.packetlib.packet.PacketProtocol;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import me.marlester.rfp.util.RemapUtil;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
+import net.minecraft.network.Connection;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerConnectionListener;
+import net.minecraft.server.network.ServerHandshakePacketListenerImpl;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * In-process transport for fake players.
+ * <p>
+ * Binds a Netty local server channel handled like the server's own TCP listeners, and creates
+ * client sessions connecting to it. Fake players joined this way cost no sockets, the bytes are
+ * just handed over between the two pipelines inside the JVM. The channel is bound lazily on the
+ * first local session. VDP
+ * </p>
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class LocalTransport {
+
+  private static final int READ_TIMEOUT_SECONDS = 30;
+
+  private final ComponentLogger logger;
+
+  private @Nullable Channel serverChannel;
+  private @Nullable LocalAddress address;
+  private @Nullable EventLoopGroup eventLoopGroup;
+
+  /**
+   * Creates a client session connecting through the local channel, binds it if not bound yet.
+   *
+   * @param protocol protocol of the session.
+   * @return the session, not connected yet.
+   */
+  public synchronized Session createSession(PacketProtocol protocol) {
+    if (serverChannel == null) {
+      bind();
+    }
+    return new LocalClientSession(address, eventLoopGroup, protocol);
+  }
+
+  /**
+   * Closes the local channel, fake players joined through it get disconnected.
+   */
+  public synchronized void close() {
+    if (serverChannel != null) {
+      serverChannel.close().syncUninterruptibly();
+      serverChannel = null;
+      address = null;
+    }
+    if (eventLoopGroup != null) {
+      eventLoopGroup.shutdownGracefully();
+      eventLoopGroup = null;
+    }
+  }
+
+  private void bind() {
+    var server = MinecraftServer.getServer();
+    var connectionListener = server.getConnection();
+    List<Connection> connections = getConnections(connectionListener);
+    // 0 threads mean Netty's default, the same number the server's own IO group gets
+    eventLoopGroup = new DefaultEventLoopGroup(0);
+    serverChannel = new ServerBootstrap()
+        .channel(LocalServerChannel.class)
+        .group(eventLoopGroup)
+        .childHandler(new ChannelInitializer<>() {
+          @Override
+          protected void initChannel(Channel channel) {
+            var connection = new LocalConnection();
+            connection.setListenerForServerboundHandshake(
+                new ServerHandshakePacketListenerImpl(server, connection));
+            var pipeline = channel.pipeline();
+            // Same timeout as the server's TCP listeners set, so a wedged session gets dropped
+            pipeline.addLast("timeout", new ReadTimeoutHandler(READ_TIMEOUT_SECONDS));
+            Connection.configureSerialization(pipeline, PacketFlow.SERVERBOUND, null);
+            connection.configurePacketHandler(pipeline);
+            // The server ticks connections from this list, just like the TCP ones
+            synchronized (connections) {
+              connections.add(connection);
+            }
+          }
+        })
+        .localAddress(LocalAddress.ANY)
+        .bind()
+        .syncUninterruptibly()
+        .channel();
+    address = (LocalAddress) serverChannel.localAddress();
+    logger.info("Bound local transport for fake players at " + address + ".");
+  }
+
+  @SuppressWarnings("unchecked")
+  @SneakyThrows
+  private static List<Connection> getConnections(ServerConnectionListener connectionListener) {
+    var field = ServerConnectionListener.class.getDeclaredField(
+        RemapUtil.CONNECTIONS_FIELD_NAME);
+    field.setAccessible(true);
+    return (List<Connection>) field.get(connectionListener);
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.update;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The verdict of an update check.
+ *
+ * @param verdict         what the update checker found out.
+ * @param fileDisplayName display name of the latest file, null if there is no file.
+ * @param mcVersion       minecraft version the check was made for.
+ */
+public record UpdateCheckResult(Verdict verdict, @Nullable String fileDisplayName,
+                                String mcVersion) {
+
+  /**
+   * Possible verdicts of an update check.
+   */
+  public enum Verdict {
+    /**
+     * The running version is the latest one.
+     */
+    LATEST,
+    /**
+     * The latest file looks older than the running version, probably a mistake on the page.
+     */
+    PROBABLY_LATEST,
+    /**
+     * There is a newer version available.
+     */
+    NEW_VERSION,
+    /**
+     * The page has no files for this minecraft version.
+     */
+    NO_FILES
+  }
+}
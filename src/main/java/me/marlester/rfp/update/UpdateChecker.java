@@ -22,35 +22,43 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.update.UpdateCheckResult.Verdict;
 import me.marlester.rfp.util.VersionUtils;
 import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Class that has a single purpose for checking updates via curse api.
  * It doesn't check if config disabled update check on purpose,
  * so you should decide whether to do it first.
+ * <br>
+ * Requests are sent asynchronously, never blocking the main thread. The last verdict is cached
+ * for update-check.cache-ttl seconds, and when it expires it is revalidated with the ETag of the
+ * last response, so an unchanged page isn't downloaded and parsed again.
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class UpdateChecker {
 
   private final ReallyFakePlayers pl;
-  @Named("config")
-  private final YamlDocument config;
+  private final ConfigYml configYml;
   private final ComponentLogger logger;
 
   // VDP, hoping that api doesn't change
@@ -65,6 +73,18 @@ public class UpdateChecker {
   @Getter
   @Setter
   private static int defaultProjectId = 873451;
+  @Getter
+  @Setter
+  private static int defaultCacheTtl = 3600;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(Duration.ofSeconds(10))
+      .followRedirects(HttpClient.Redirect.NORMAL)
+      .build();
+
+  private volatile CachedCheck cachedCheck;
+  // Guarded by this, only one request is sent at a time
+  private CompletableFuture<UpdateCheckResult> pendingCheck;
 
   /**
    * {@link #checkUpdates(CommandSender)} but the command sender
@@ -76,74 +96,182 @@ public class UpdateChecker {
 
   /**
    * Checks for updates and reports to the specified CommandSender.
+   * A fresh cached verdict is reported immediately, otherwise it's reported on the main
+   * thread once the api responds.
    *
    * @param sender The CommandSender to whom the result of the update check will be reported.
    *               This can be any command sender, including a player or the console.
    */
   public void checkUpdates(CommandSender sender) {
-    String plName = pl.getName();
-    try {
-      String apiUrl = config.getOptionalString("update-check.curse-api-url")
-          .orElse(defaultApiUrl);
-      String apiKey = config.getOptionalString("update-check.curse-api-key")
-          .orElse(defaultApiKey);
-      int projectId = config.getOptionalInt("update-check.curse-project-id")
-          .orElse(defaultProjectId);
-      String mcVersion = Bukkit.getMinecraftVersion();
-
-      /*
-       * With this technic we get the latest file of server's minecraft version,
-       * pageSize is controlling the amount of files on page, we set it to only 1,
-       * so the page isn't too large and has exactly what we need.
-       */
-      URL obj = new URL("%s/mods/%s/files?gameVersion=%s&pageSize=1"
-          .formatted(apiUrl, projectId, mcVersion));
-      HttpURLConnection con = (HttpURLConnection) obj.openConnection();
-      con.setRequestMethod("GET");
-      con.setRequestProperty("x-api-key", apiKey);
-      BufferedReader in = new BufferedReader(
-          new InputStreamReader(con.getInputStream()));
-      String inputLine;
-      StringBuilder response = new StringBuilder();
-      while ((inputLine = in.readLine()) != null) {
-        response.append(inputLine);
-      }
-      in.close();
-
-      JsonObject responseObject = JsonParser.parseString(response.toString()).getAsJsonObject();
-      JsonArray dataArray = responseObject.getAsJsonArray("data");
-      if (dataArray.isEmpty()) {
-        sender.sendMessage(ChatColor.RED + "Error - page is empty! Due to this the update checker"
-            + " couldn't find an update for " + plName + ".");
+    var cached = getCachedResult();
+    if (cached != null) {
+      report(sender, cached);
+      return;
+    }
+    fetchResult().whenComplete((result, e) -> {
+      // The plugin might have been disabled while the request was in flight
+      if (!pl.isEnabled()) {
         return;
       }
-      JsonObject fileObject = dataArray.get(0).getAsJsonObject();
-      // get file's display name, should be in a name-version format
-      String fileDisplayName = fileObject.get("displayName").getAsString().replace(".jar", "");
-
-      var plMeta = pl.getPluginMeta();
-      String plVersion = plMeta.getVersion();
-      if (fileDisplayName.contains(plVersion)) {
-        sender.sendMessage(ChatColor.GREEN + "You are running the latest version of " + plName
-            + " for mcversion-" + mcVersion + "!");
-      } else {
-        // currently it only supports name-version
-        String fileVersion = fileDisplayName.split("-")[1];
-        // if plugin version is greater or equals file version, it was PROBABLY a mistake.
-        if (VersionUtils.versionCompare(fileVersion, plVersion) <= 0) {
-          sender.sendMessage(ChatColor.DARK_GREEN + "You are likely running the latest version of "
-              + plName + " for mcversion-" + mcVersion + ".");
-        } else {
-          sender.sendMessage(ChatColor.LIGHT_PURPLE + "New version found for " + plName + ": "
-              + fileDisplayName + ". Please install it from " + plName + "'s website: "
-              + plMeta.getWebsite() + "!");
+      Bukkit.getScheduler().runTask(pl, () -> {
+        if (sender instanceof Player player && !player.isOnline()) {
+          return;
         }
+        if (e != null) {
+          // The error in update checker shouldn't halt the whole plugin
+          sender.sendMessage("Error occurred while checking for " + pl.getName()
+              + "'s updates! Please check console for error logs.");
+          return;
+        }
+        report(sender, result);
+      });
+    });
+  }
+
+  /**
+   * Returns the cached verdict of the last update check, if it's not expired yet.
+   *
+   * @return the cached verdict, or null if there is no fresh one.
+   */
+  public @Nullable UpdateCheckResult getCachedResult() {
+    var cached = cachedCheck;
+    if (cached == null
+        || System.currentTimeMillis() >= cached.checkedAt() + getCacheTtlMillis()) {
+      return null;
+    }
+    try {
+      if (!cached.uri().equals(createUri())) {
+        return null;
       }
-    } catch (Exception e) {
-      // The error in update checker shouldn't halt the whole plugin
-      sender.sendMessage("Error occurred while checking for " + plName
-          + "'s updates! Please check console for error logs.");
-      logger.warn("Error while checking for " + plName + "'s updates!", e);
+    } catch (IllegalArgumentException e) {
+      // The configured api url is broken, fetchResult reports it
+      return null;
+    }
+    return cached.result();
+  }
+
+  /**
+   * Fetches the verdict asynchronously. Returns the cached verdict if it's still fresh,
+   * joins the pending request if there is one.
+   *
+   * @return future completed with the verdict, or exceptionally if the check failed.
+   */
+  public synchronized CompletableFuture<UpdateCheckResult> fetchResult() {
+    var cached = getCachedResult();
+    if (cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    if (pendingCheck != null) {
+      return pendingCheck;
+    }
+    URI uri;
+    try {
+      uri = createUri();
+    } catch (IllegalArgumentException e) {
+      logger.warn("Error while checking for " + pl.getName() + "'s updates!", e);
+      return CompletableFuture.failedFuture(e);
+    }
+    String apiKey = Objects.requireNonNullElse(
+        configYml.getSettings().updateCheck().curseApiKey(), defaultApiKey);
+    String mcVersion = Bukkit.getMinecraftVersion();
+    String plVersion = pl.getPluginMeta().getVersion();
+    var requestBuilder = HttpRequest.newBuilder(uri)
+        .timeout(Duration.ofSeconds(10))
+        .header("x-api-key", apiKey)
+        .header("Accept", "application/json")
+        .GET();
+    var lastCheck = cachedCheck;
+    if (lastCheck != null && lastCheck.etag() != null && lastCheck.uri().equals(uri)) {
+      requestBuilder.header("If-None-Match", lastCheck.etag());
     }
+    var future = httpClient.sendAsync(requestBuilder.build(),
+            HttpResponse.BodyHandlers.ofString())
+        .thenApply(response -> {
+          UpdateCheckResult result;
+          String etag;
+          if (response.statusCode() == 304 && lastCheck != null) {
+            result = lastCheck.result();
+            etag = lastCheck.etag();
+          } else if (response.statusCode() == 200) {
+            result = parseResponse(response.body(), mcVersion, plVersion);
+            etag = response.headers().firstValue("ETag").orElse(null);
+          } else {
+            throw new IllegalStateException("Unexpected response code "
+                + response.statusCode() + " from " + uri);
+          }
+          cachedCheck = new CachedCheck(uri, result, etag, System.currentTimeMillis());
+          return result;
+        })
+        .whenComplete((result, e) -> {
+          if (e != null) {
+            logger.warn("Error while checking for " + pl.getName() + "'s updates!", e);
+          }
+          synchronized (this) {
+            pendingCheck = null;
+          }
+        });
+    // The request might have failed right away, don't keep a completed future as pending
+    pendingCheck = future.isDone() ? null : future;
+    return future;
+  }
+
+  private URI createUri() {
+    var updateCheck = configYml.getSettings().updateCheck();
+    String apiUrl = Objects.requireNonNullElse(updateCheck.curseApiUrl(), defaultApiUrl);
+    int projectId = Objects.requireNonNullElse(updateCheck.curseProjectId(), defaultProjectId);
+    /*
+     * With this technic we get the latest file of server's minecraft version,
+     * pageSize is controlling the amount of files on page, we set it to only 1,
+     * so the page isn't too large and has exactly what we need.
+     */
+    return URI.create("%s/mods/%s/files?gameVersion=%s&pageSize=1"
+        .formatted(apiUrl, projectId, Bukkit.getMinecraftVersion()));
+  }
+
+  private long getCacheTtlMillis() {
+    return 1000L * Objects.requireNonNullElse(configYml.getSettings().updateCheck().cacheTtl(),
+        defaultCacheTtl);
+  }
+
+  private static UpdateCheckResult parseResponse(String response, String mcVersion,
+      String plVersion) {
+    JsonObject responseObject = JsonParser.parseString(response).getAsJsonObject();
+    JsonArray dataArray = responseObject.getAsJsonArray("data");
+    if (dataArray.isEmpty()) {
+      return new UpdateCheckResult(Verdict.NO_FILES, null, mcVersion);
+    }
+    JsonObject fileObject = dataArray.get(0).getAsJsonObject();
+    // get file's display name, should be in a name-version format
+    String fileDisplayName = fileObject.get("displayName").getAsString().replace(".jar", "");
+    if (fileDisplayName.contains(plVersion)) {
+      return new UpdateCheckResult(Verdict.LATEST, fileDisplayName, mcVersion);
+    }
+    // currently it only supports name-version
+    String fileVersion = fileDisplayName.split("-")[1];
+    // if plugin version is greater or equals file version, it was PROBABLY a mistake.
+    if (VersionUtils.versionCompare(fileVersion, plVersion) <= 0) {
+      return new UpdateCheckResult(Verdict.PROBABLY_LATEST, fileDisplayName, mcVersion);
+    }
+    return new UpdateCheckResult(Verdict.NEW_VERSION, fileDisplayName, mcVersion);
+  }
+
+  private void report(CommandSender sender, UpdateCheckResult result) {
+    String plName = pl.getName();
+    String mcVersion = result.mcVersion();
+    switch (result.verdict()) {
+      case NO_FILES -> sender.sendMessage(ChatColor.RED + "Error - page is empty! Due to this"
+          + " the update checker couldn't find an update for " + plName + ".");
+      case LATEST -> sender.sendMessage(ChatColor.GREEN + "You are running the latest version of "
+          + plName + " for mcversion-" + mcVersion + "!");
+      case PROBABLY_LATEST -> sender.sendMessage(ChatColor.DARK_GREEN + "You are likely running"
+          + " the latest version of " + plName + " for mcversion-" + mcVersion + ".");
+      case NEW_VERSION -> sender.sendMessage(ChatColor.LIGHT_PURPLE + "New version found for "
+          + plName + ": " + result.fileDisplayName() + ". Please install it from " + plName
+          + "'s website: " + pl.getPluginMeta().getWebsite() + "!");
+    }
+  }
+
+  private record CachedCheck(URI uri, UpdateCheckResult result, @Nullable String etag,
+                             long checkedAt) {
   }
 }
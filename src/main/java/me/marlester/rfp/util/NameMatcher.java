@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.util;
+
+import java.util.Arrays;
+
+/**
+ * A case-insensitive multiset of names that finds whether any of them is a whole word of a text
+ * in a single pass over the text, without allocating anything. Names differing only in case
+ * share a path in the trie, so every node counts the names ending there, and removing one of
+ * them keeps the others matching.
+ * <br>
+ * Names are kept in a trie of immutable nodes, adding or removing a name copies only the nodes
+ * on its path, so it costs as much as the name is long. Matching reads a consistent trie
+ * from any thread, changes have to be made by one thread at a time.
+ */
+public final class NameMatcher {
+
+  private static final Node EMPTY = new Node(new char[0], new Node[0], 0);
+
+  private volatile Node root = EMPTY;
+
+  /**
+   * Adds a name, adding a name again needs another removal to remove it.
+   *
+   * @param name name to add, must not be empty or contain spaces.
+   */
+  public void add(String name) {
+    root = root.with(name, 0, true);
+  }
+
+  /**
+   * Removes a name once, does nothing if it isn't there.
+   *
+   * @param name name to remove.
+   */
+  public void remove(String name) {
+    var newRoot = root.with(name, 0, false);
+    root = newRoot == null ? EMPTY : newRoot;
+  }
+
+  /**
+   * Removes all names.
+   */
+  public void clear() {
+    root = EMPTY;
+  }
+
+  /**
+   * Checks whether any of the names is a word of the text, ignoring case.
+   * A word is anything between a space and the next space or the end of the text,
+   * so the first word, usually the label of a command, never matches.
+   *
+   * @param text text to check.
+   * @return true if a name has been found.
+   */
+  public boolean matchesAnyWord(CharSequence text) {
+    var root = this.root;
+    if (root == EMPTY) {
+      return false;
+    }
+    // Null while the current word can't be a name anymore
+    Node node = null;
+    for (int i = 0, length = text.length(); i < length; i++) {
+      char c = text.charAt(i);
+      if (c == ' ') {
+        if (node != null && node.count > 0) {
+          return true;
+        }
+        node = root;
+      } else if (node != null) {
+        node = node.child(Character.toLowerCase(c));
+      }
+    }
+    return node != null && node.count > 0;
+  }
+
+  /**
+   * A node of the trie.
+   *
+   * @param count number of names ending at this node.
+   */
+  private record Node(char[] keys, Node[] children, int count) {
+
+    private Node child(char key) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == key) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Returns a copy of this node with the name from the index on added or removed,
+     * or null if the copy would hold no names at all.
+     */
+    private Node with(String name, int index, boolean add) {
+      if (index == name.length()) {
+        if (!add && count == 0) {
+          return this;
+        }
+        int newCount = add ? count + 1 : count - 1;
+        return newCount > 0 || keys.length > 0 ? new Node(keys, children, newCount) : null;
+      }
+      char key = Character.toLowerCase(name.charAt(index));
+      int slot = -1;
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == key) {
+          slot = i;
+          break;
+        }
+      }
+      Node oldChild = slot == -1 ? null : children[slot];
+      Node newChild;
+      if (oldChild != null) {
+        newChild = oldChild.with(name, index + 1, add);
+      } else if (add) {
+        newChild = EMPTY.with(name, index + 1, true);
+      } else {
+        return this;
+      }
+      if (newChild == oldChild) {
+        return this;
+      }
+      if (newChild == null) {
+        // The child held only the removed name, drop it
+        if (keys.length == 1 && count == 0) {
+          return null;
+        }
+        var newKeys = new char[keys.length - 1];
+        var newChildren = new Node[keys.length - 1];
+        System.arraycopy(keys, 0, newKeys, 0, slot);
+        System.arraycopy(keys, slot + 1, newKeys, slot, keys.length - slot - 1);
+        System.arraycopy(children, 0, newChildren, 0, slot);
+        System.arraycopy(children, slot + 1, newChildren, slot, keys.length - slot - 1);
+        return new Node(newKeys, newChildren, count);
+      }
+      if (slot == -1) {
+        var newKeys = Arrays.copyOf(keys, keys.length + 1);
+        var newChildren = Arrays.copyOf(children, children.length + 1);
+        newKeys[keys.length] = key;
+        newChildren[keys.length] = newChild;
+        return new Node(newKeys, newChildren, count);
+      }
+      var newChildren = children.clone();
+      newChildren[slot] = newChild;
+      return new Node(keys, newChildren, count);
+    }
+  }
+}
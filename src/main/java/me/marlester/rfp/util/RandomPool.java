@@ -0,0 +1,126 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A set of distinct elements that can hand out a random element in constant time.
+ * Adding, removing and checking elements is constant time as well.
+ * <br>
+ * Not thread-safe, use it from a single thread (usually the main one).
+ *
+ * @param <T> type of the elements.
+ */
+public class RandomPool<T> {
+
+  private final List<T> elements = new ArrayList<>();
+  private final Map<T, Integer> indexes = new HashMap<>();
+
+  /**
+   * Adds an element to the pool.
+   *
+   * @param element element to add.
+   * @return true if the element was added, false if it was already in the pool.
+   */
+  public boolean add(T element) {
+    if (indexes.putIfAbsent(element, elements.size()) != null) {
+      return false;
+    }
+    elements.add(element);
+    return true;
+  }
+
+  /**
+   * Removes an element from the pool.
+   *
+   * @param element element to remove.
+   * @return true if the element was removed, false if it wasn't in the pool.
+   */
+  public boolean remove(T element) {
+    Integer index = indexes.remove(element);
+    if (index == null) {
+      return false;
+    }
+    // Move the last element into the freed slot, so nothing has to be shifted
+    T last = elements.remove(elements.size() - 1);
+    if (index < elements.size()) {
+      elements.set(index, last);
+      indexes.put(last, index);
+    }
+    return true;
+  }
+
+  /**
+   * Checks if an element is in the pool.
+   *
+   * @param element element to check.
+   * @return true if the element is in the pool, false if not.
+   */
+  public boolean contains(T element) {
+    return indexes.containsKey(element);
+  }
+
+  /**
+   * Returns a random element of the pool without removing it.
+   *
+   * @return a random element, or null if the pool is empty.
+   */
+  public @Nullable T getRandom() {
+    if (elements.isEmpty()) {
+      return null;
+    }
+    return elements.get(ThreadLocalRandom.current().nextInt(elements.size()));
+  }
+
+  /**
+   * Removes a random element from the pool and returns it.
+   *
+   * @return the removed random element, or null if the pool is empty.
+   */
+  public @Nullable T pollRandom() {
+    T element = getRandom();
+    if (element != null) {
+      remove(element);
+    }
+    return element;
+  }
+
+  /**
+   * Returns the number of elements in the pool.
+   *
+   * @return number of elements.
+   */
+  public int size() {
+    return elements.size();
+  }
+
+  /**
+   * Checks if the pool is empty.
+   *
+   * @return true if there are no elements in the pool.
+   */
+  public boolean isEmpty() {
+    return elements.isEmpty();
+  }
+}
@@ -17,10 +17,16 @@
 
 package me.marlester.rfp.util;
 
+import com.mojang.authlib.GameProfile;
 import lombok.experimental.UtilityClass;
 import net.minecraft.network.protocol.login.ServerboundHelloPacket;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerConnectionListener;
 import net.minecraft.server.network.ServerLoginPacketListenerImpl;
+import net.minecraft.server.players.GameProfileCache;
+import net.minecraft.server.players.PlayerList;
+import net.minecraft.world.entity.Entity;
 import xyz.jpenilla.reflectionremapper.ReflectionRemapper;
 
 /**
@@ -53,6 +59,26 @@ public class RemapUtil {
    */
   public final String CONNECTION_FIELD_NAME;
 
+  /**
+   * The remapped name of the 'connections' field in ServerConnectionListener.
+   */
+  public final String CONNECTIONS_FIELD_NAME;
+
+  /**
+   * The remapped name of the 'save' method in PlayerList.
+   */
+  public final String PLAYER_LIST_SAVE_METHOD_NAME;
+
+  /**
+   * The remapped name of the 'add' method in GameProfileCache.
+   */
+  public final String PROFILE_CACHE_ADD_METHOD_NAME;
+
+  /**
+   * The remapped name of the 'getUUID' method in Entity.
+   */
+  public final String GET_UUID_METHOD_NAME;
+
   static {
     final ReflectionRemapper reflectionRemapper = ReflectionRemapper.forReobfMappingsInPaperJar();
     HANDLE_HELLO_METHOD_NAME = reflectionRemapper.remapMethodName(
@@ -72,6 +98,24 @@ public class RemapUtil {
         ServerLoginPacketListenerImpl.class,
         "connection"
     );
+    CONNECTIONS_FIELD_NAME = reflectionRemapper.remapFieldName(
+        ServerConnectionListener.class,
+        "connections"
+    );
+    PLAYER_LIST_SAVE_METHOD_NAME = reflectionRemapper.remapMethodName(
+        PlayerList.class,
+        "save",
+        ServerPlayer.class
+    );
+    PROFILE_CACHE_ADD_METHOD_NAME = reflectionRemapper.remapMethodName(
+        GameProfileCache.class,
+        "add",
+        GameProfile.class
+    );
+    GET_UUID_METHOD_NAME = reflectionRemapper.remapMethodName(
+        Entity.class,
+        "getUUID"
+    );
   }
 }
 
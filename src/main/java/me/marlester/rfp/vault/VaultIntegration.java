@@ -19,25 +19,55 @@ package me.marlester.rfp.vault;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
-import com.google.inject.name.Named;
-import dev.dejvokep.boostedyaml.YamlDocument;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.timer.TimingWheel;
+import me.marlester.rfp.util.PermUtils;
+import net.kyori.adventure.text.logger.slf4j.ComponentLogger;
 import net.milkbowl.vault.permission.Permission;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionDefault;
 import org.bukkit.plugin.RegisteredServiceProvider;
 
 /**
  * Vault integration - Vault support, permissions and groups.
+ * <br>
+ * Writes through Vault are usually persistent and may hit the storage of the permissions plugin,
+ * so they are queued and applied a few per tick, a wave of joins is spread over several ticks
+ * instead of stalling one. They stay on the main thread, as permissions plugins and Bukkit's
+ * attachments generally aren't thread-safe. With transient permissions, permissions are instead
+ * granted through one in-memory attachment of a precomputed parent permission, which needs
+ * neither Vault nor any write.
  */
 @RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
 @Singleton
 public class VaultIntegration {
 
-  @Named("config")
-  private final YamlDocument config;
+  /**
+   * Parent permission of all configured permissions, granted to fake players
+   * with transient permissions.
+   */
+  public static final String FAKE_PLAYER_PERMISSION = PermUtils.PERMISSIONS_PREFIX
+      + "fake-player-permissions";
+
+  private static final int WRITES_PER_TICK = 10;
+
+  private final ReallyFakePlayers pl;
+  private final ConfigYml configYml;
+  private final TimingWheel timingWheel;
+  private final ComponentLogger logger;
+
+  private final ArrayDeque<Runnable> writes = new ArrayDeque<>();
+  // Size of writes, kept on every change, so metrics can read it from any thread
+  private volatile int queuedWrites;
+  private boolean draining;
 
   private Object perms = null;
 
@@ -45,7 +75,8 @@ public class VaultIntegration {
    * Setups Vault's permissions for this class.
    */
   public void setupPermissions() {
-    if (!config.getBoolean("vault-integration.enable")
+    refreshPermissions();
+    if (!configYml.getSettings().vaultIntegration().enable()
         || Bukkit.getPluginManager().getPlugin("Vault") == null) {
       return;
     }
@@ -54,6 +85,27 @@ public class VaultIntegration {
     perms = rsp.getProvider();
   }
 
+  /**
+   * Updates the children of {@link #FAKE_PLAYER_PERMISSION} to the configured permissions,
+   * e.g. after a reload. Fake players that already have it are recalculated.
+   */
+  public void refreshPermissions() {
+    var children = new LinkedHashMap<String, Boolean>();
+    for (String permission : configYml.getSettings().vaultIntegration().permissions()) {
+      children.put(permission, true);
+    }
+    var pluginManager = Bukkit.getPluginManager();
+    var parent = pluginManager.getPermission(FAKE_PLAYER_PERMISSION);
+    if (parent == null) {
+      pluginManager.addPermission(new org.bukkit.permissions.Permission(FAKE_PLAYER_PERMISSION,
+          "Permissions granted to fake players.", PermissionDefault.FALSE, children));
+    } else {
+      parent.getChildren().clear();
+      parent.getChildren().putAll(children);
+      parent.recalculatePermissibles();
+    }
+  }
+
   /**
    * Checks if the vault integration is active.
    *
@@ -65,30 +117,87 @@ public class VaultIntegration {
 
   /**
    * Gives fake player a random group chosen from the configuration file.
+   * The group is granted in one of the next ticks.
    *
    * @param player which player should receive the group
    */
   public void giveGroup(Player player) {
-    var groups = config.getOptionalStringList("vault-integration.groups").orElse(null);
-    if (groups == null) {
+    if (!isActive()) {
+      return;
+    }
+    var groups = configYml.getSettings().vaultIntegration().groups();
+    if (groups.isEmpty()) {
       return;
     }
     var group = groups.get(ThreadLocalRandom.current().nextInt(groups.size()));
-    ((Permission) perms).playerAddGroup(null, player, group);
+    enqueue(player, permission -> permission.playerAddGroup(null, player, group));
   }
 
   /**
    * Gives fake player permissions from the configuration file.
+   * Transient permissions are granted at once, otherwise they are granted in one of the next
+   * ticks.
    *
    * @param player which player should receive the permissions
    */
   public void givePermissions(Player player) {
-    var permissions = config.getOptionalStringList("vault-integration.permissions").orElse(null);
-    if (permissions == null) {
+    var vaultIntegration = configYml.getSettings().vaultIntegration();
+    if (!vaultIntegration.enable() || vaultIntegration.permissions().isEmpty()) {
+      return;
+    }
+    if (vaultIntegration.transientPermissions()) {
+      // One attachment, so the player's permissions are recalculated just once
+      player.addAttachment(pl, FAKE_PLAYER_PERMISSION, true);
+      return;
+    }
+    if (!isActive()) {
       return;
     }
-    for (String permission : permissions) {
-      ((Permission) perms).playerAdd(null, player, permission);
+    var permissions = vaultIntegration.permissions();
+    enqueue(player, permission -> {
+      for (String node : permissions) {
+        permission.playerAdd(null, player, node);
+      }
+    });
+  }
+
+  /**
+   * Returns the number of Vault writes waiting to be applied.
+   *
+   * @return number of queued writes.
+   */
+  public int getQueuedWrites() {
+    return queuedWrites;
+  }
+
+  private void enqueue(Player player, Consumer<Permission> write) {
+    writes.add(() -> {
+      // The fake player may have left already, there's no point in writing its data then
+      if (player.isOnline()) {
+        write.accept((Permission) perms);
+      }
+    });
+    queuedWrites = writes.size();
+    if (!draining) {
+      draining = true;
+      timingWheel.schedule(this, 1, this::drain);
+    }
+  }
+
+  private void drain() {
+    Runnable write;
+    for (int i = 0; i < WRITES_PER_TICK && (write = writes.poll()) != null; i++) {
+      queuedWrites = writes.size();
+      try {
+        write.run();
+      } catch (RuntimeException e) {
+        logger.error("Error while granting a fake player Vault permissions or a group!", e);
+      }
+    }
+    if (writes.isEmpty()) {
+      draining = false;
+    } else {
+      timingWheel.schedule(this, 1, this::drain);
     }
   }
 }
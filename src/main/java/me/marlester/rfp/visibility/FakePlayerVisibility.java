@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 Marlester
+ *
+ * Licensed under the EUPL, Version 1.2 (the "License");
+ *
+ * You may not use this work except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ */
+
+package me.marlester.rfp.visibility;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import me.marlester.rfp.ReallyFakePlayers;
+import me.marlester.rfp.config.ConfigYml;
+import me.marlester.rfp.faketools.FakeLister;
+import me.marlester.rfp.util.PermUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+/**
+ * Decides who sees fake players when the hide option is enabled.
+ * <br>
+ * A hidden fake player is made invisible by default, so the server itself leaves it out of
+ * what it sends to every viewer, present or future, and no viewer has to be hidden from it
+ * one by one. Only viewers allowed to see fake players, the seers, get them shown
+ * individually. Hiding applies to fake players in the configured worlds only, or everywhere
+ * if no worlds are set.
+ * <br>
+ * Main thread only.
+ */
+@RequiredArgsConstructor(onConstructor_ = {@Inject}, access = AccessLevel.PACKAGE)
+@Singleton
+public class FakePlayerVisibility {
+
+  private final ReallyFakePlayers pl;
+  private final FakeLister fakeLister;
+  private final ConfigYml configYml;
+
+  /**
+   * Real players who see hidden fake players.
+   */
+  private final Set<Player> seers = new HashSet<>();
+
+  /**
+   * Applies the hide rules to a fake player, e.g. when it joins or changes its world.
+   *
+   * @param fakePlayer the in-game player of a fake player.
+   */
+  public void applyToFakePlayer(Player fakePlayer) {
+    boolean hidden = shouldHide(fakePlayer);
+    // VDP, Paper's entity visibility by default
+    if (fakePlayer.isVisibleByDefault() != hidden) {
+      return;
+    }
+    fakePlayer.setVisibleByDefault(!hidden);
+    if (hidden) {
+      for (Player seer : seers) {
+        seer.showEntity(pl, fakePlayer);
+      }
+    }
+  }
+
+  /**
+   * Shows hidden fake players to a joining real player if it's allowed to see them.
+   *
+   * @param viewer a joining real player.
+   */
+  public void addViewer(Player viewer) {
+    if (!isSeer(viewer)) {
+      return;
+    }
+    seers.add(viewer);
+    for (var fakePlayer : fakeLister.getFakePlayers()) {
+      var player = fakePlayer.getPlayer();
+      if (!player.isVisibleByDefault()) {
+        viewer.showEntity(pl, player);
+      }
+    }
+  }
+
+  /**
+   * Forgets a quitting real player.
+   *
+   * @param viewer a quitting real player.
+   */
+  public void removeViewer(Player viewer) {
+    seers.remove(viewer);
+  }
+
+  /**
+   * Applies changed hide rules to all fake players and viewers, e.g. after a reload.
+   */
+  public void refresh() {
+    var oldSeers = new HashSet<>(seers);
+    seers.clear();
+    for (Player viewer : Bukkit.getOnlinePlayers()) {
+      if (!fakeLister.isFakePlayer(viewer.getUniqueId()) && isSeer(viewer)) {
+        seers.add(viewer);
+      }
+    }
+    for (var fakePlayer : fakeLister.getFakePlayers()) {
+      var player = fakePlayer.getPlayer();
+      boolean wasHidden = !player.isVisibleByDefault();
+      applyToFakePlayer(player);
+      // Toggling the default already reset the seers, otherwise only the changed ones are left
+      if (!wasHidden || player.isVisibleByDefault()) {
+        continue;
+      }
+      for (Player oldSeer : oldSeers) {
+        if (!seers.contains(oldSeer)) {
+          oldSeer.hideEntity(pl, player);
+        }
+      }
+      for (Player seer : seers) {
+        if (!oldSeers.contains(seer)) {
+          seer.showEntity(pl, player);
+        }
+      }
+    }
+  }
+
+  private boolean shouldHide(Player fakePlayer) {
+    var hide = configYml.getSettings().hide();
+    return hide.enable()
+        && (hide.worlds().isEmpty() || hide.worlds().contains(fakePlayer.getWorld().getName()));
+  }
+
+  private boolean isSeer(Player viewer) {
+    var hide = configYml.getSettings().hide();
+    return hide.enable() && hide.seePermission() && PermUtils.hasPermission("see", viewer);
+  }
+}